@@ -0,0 +1,7 @@
+package com.url.springstarterkit.budget;
+
+public class PerformanceBudgetExceededException extends RuntimeException {
+    public PerformanceBudgetExceededException(String message) {
+        super(message);
+    }
+}
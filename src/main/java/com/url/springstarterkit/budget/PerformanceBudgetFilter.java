@@ -0,0 +1,94 @@
+package com.url.springstarterkit.budget;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.NonNull;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Measures SQL statements and allocated bytes for each request and checks them against the handler's
+ * {@link QueryBudget}. Repeated identical statements are reported as likely N+1 queries. Violations are
+ * kept for inspection and, when {@code failOnViolation} is set (tests and CI), thrown so the request fails;
+ * the response is then buffered, so a failing request reaches the client as an error rather than a
+ * success whose exception is only logged.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class PerformanceBudgetFilter extends OncePerRequestFilter {
+
+    private final int defaultStatements;
+    private final long defaultAllocatedKb;
+    private final int repeatedStatementThreshold;
+    private final boolean failOnViolation;
+
+    @Getter
+    private final List<String> violations = Collections.synchronizedList(new ArrayList<>());
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        // Failing requests must not have been sent yet, so their body is held until the budget is checked
+        ContentCachingResponseWrapper bufferedResponse = failOnViolation ? new ContentCachingResponseWrapper(response) : null;
+        RequestBudgetContext context = RequestBudgetContext.start();
+        try {
+            filterChain.doFilter(request, bufferedResponse != null ? bufferedResponse : response);
+        } finally {
+            RequestBudgetContext.end();
+        }
+
+        List<String> requestViolations = checkBudget(request, context);
+        if (!requestViolations.isEmpty()) {
+            requestViolations.forEach(violation -> log.error("Performance budget exceeded: {}", violation));
+            violations.addAll(requestViolations);
+            if (failOnViolation) {
+                throw new PerformanceBudgetExceededException(String.join("; ", requestViolations));
+            }
+        }
+        if (bufferedResponse != null) {
+            bufferedResponse.copyBodyToResponse();
+        }
+    }
+
+    private List<String> checkBudget(HttpServletRequest request, RequestBudgetContext context) {
+        Object handler = request.getAttribute(QueryBudgetInterceptor.HANDLER_ATTRIBUTE);
+        if (handler == null) {
+            return List.of();
+        }
+        QueryBudget budget = (QueryBudget) request.getAttribute(QueryBudgetInterceptor.BUDGET_ATTRIBUTE);
+        int maxStatements = budget != null ? budget.statements() : defaultStatements;
+        long maxAllocatedBytes = (budget != null ? budget.allocatedKb() : defaultAllocatedKb) * 1024;
+        long allocatedBytes = context.allocatedBytes();
+
+        log.debug("{} used {} SQL statements and {} bytes", handler, context.getStatements(), allocatedBytes);
+
+        List<String> requestViolations = new ArrayList<>();
+        if (context.getStatements() > maxStatements) {
+            requestViolations.add(String.format("%s issued %d SQL statements, budget is %d",
+                    handler, context.getStatements(), maxStatements));
+        }
+        if (allocatedBytes > maxAllocatedBytes) {
+            requestViolations.add(String.format("%s allocated %d bytes, budget is %d",
+                    handler, allocatedBytes, maxAllocatedBytes));
+        }
+        for (Map.Entry<String, Integer> repeated : context.repeatedStatements(repeatedStatementThreshold).entrySet()) {
+            requestViolations.add(String.format("%s repeated a statement %d times (possible N+1): %s",
+                    handler, repeated.getValue(), repeated.getKey()));
+        }
+        return requestViolations;
+    }
+}
@@ -0,0 +1,23 @@
+package com.url.springstarterkit.budget;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares the most SQL statements and heap bytes a single request to the handler may use,
+ * counted from the start of the filter chain so authentication work is included. Values are
+ * measured by {@code QueryBudgetTest} on a warmed-up request of the size it sends (pages and id
+ * lists of five users, one token): statements exactly, allocation plus about 25%, rounded up to 8 KB.
+ * Re-measure with {@code -Dlogging.level.com.url.springstarterkit.budget=DEBUG} when a handler changes.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryBudget {
+    int statements();
+
+    long allocatedKb();
+}
@@ -0,0 +1,32 @@
+package com.url.springstarterkit.budget;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Hands the resolved handler's {@link QueryBudget} to {@link PerformanceBudgetFilter}, which only sees the URL.
+ */
+public class QueryBudgetInterceptor implements HandlerInterceptor {
+
+    static final String BUDGET_ATTRIBUTE = QueryBudgetInterceptor.class.getName() + ".budget";
+    static final String HANDLER_ATTRIBUTE = QueryBudgetInterceptor.class.getName() + ".handler";
+
+    @Override
+    public boolean preHandle(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull Object handler
+    ) {
+        if (handler instanceof HandlerMethod handlerMethod) {
+            request.setAttribute(HANDLER_ATTRIBUTE, handlerMethod.getShortLogMessage());
+            QueryBudget budget = handlerMethod.getMethodAnnotation(QueryBudget.class);
+            if (budget != null) {
+                request.setAttribute(BUDGET_ATTRIBUTE, budget);
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,57 @@
+package com.url.springstarterkit.budget;
+
+import lombok.Getter;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-thread record of the SQL statements and heap allocation of the request being served.
+ */
+public final class RequestBudgetContext {
+
+    private static final ThreadLocal<RequestBudgetContext> CURRENT = new ThreadLocal<>();
+    private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private final long allocatedAtStart = THREAD_MX_BEAN.getCurrentThreadAllocatedBytes();
+    private final Map<String, Integer> statementCounts = new HashMap<>();
+    @Getter
+    private int statements;
+
+    private RequestBudgetContext() {
+    }
+
+    public static RequestBudgetContext start() {
+        RequestBudgetContext context = new RequestBudgetContext();
+        CURRENT.set(context);
+        return context;
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    static void recordStatement(String sql) {
+        RequestBudgetContext context = CURRENT.get();
+        if (context != null) {
+            context.statements++;
+            context.statementCounts.merge(sql, 1, Integer::sum);
+        }
+    }
+
+    public long allocatedBytes() {
+        return THREAD_MX_BEAN.getCurrentThreadAllocatedBytes() - allocatedAtStart;
+    }
+
+    public Map<String, Integer> repeatedStatements(int threshold) {
+        Map<String, Integer> repeated = new HashMap<>();
+        statementCounts.forEach((sql, count) -> {
+            if (count >= threshold) {
+                repeated.put(sql, count);
+            }
+        });
+        return repeated;
+    }
+}
@@ -0,0 +1,74 @@
+package com.url.springstarterkit.budget;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.lang.NonNull;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.Set;
+
+/**
+ * Wraps the application's data sources so every statement prepared or executed on their connections
+ * counts against the current request's budget, whether it comes from Hibernate or a JdbcTemplate.
+ * The data source is proxied by class where possible, so beans injected by their concrete type keep working.
+ */
+public class SqlStatementCounter implements BeanPostProcessor {
+
+    private static final Set<String> PREPARE_METHODS = Set.of("prepareStatement", "prepareCall");
+    private static final Set<String> EXECUTE_METHODS =
+            Set.of("execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "addBatch");
+
+    @Override
+    public Object postProcessAfterInitialization(@NonNull Object bean, @NonNull String beanName) {
+        if (!(bean instanceof DataSource)) {
+            return bean;
+        }
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        // Final classes can only be proxied by their interfaces
+        proxyFactory.setProxyTargetClass(!Modifier.isFinal(bean.getClass().getModifiers()));
+        proxyFactory.addAdvice((MethodInterceptor) invocation -> {
+            Object result = invocation.proceed();
+            return result instanceof Connection connection ? countingConnection(connection) : result;
+        });
+        return proxyFactory.getProxy(bean.getClass().getClassLoader());
+    }
+
+    private static Connection countingConnection(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(SqlStatementCounter.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    if (PREPARE_METHODS.contains(method.getName()) && args[0] instanceof String sql) {
+                        RequestBudgetContext.recordStatement(sql);
+                    }
+                    Object result = invoke(connection, method, args);
+                    return result instanceof Statement statement && "createStatement".equals(method.getName())
+                            ? countingStatement(statement)
+                            : result;
+                });
+    }
+
+    private static Statement countingStatement(Statement statement) {
+        return (Statement) Proxy.newProxyInstance(SqlStatementCounter.class.getClassLoader(),
+                new Class<?>[]{Statement.class}, (proxy, method, args) -> {
+                    // Plain statements carry their SQL with each execution rather than when created
+                    if (EXECUTE_METHODS.contains(method.getName()) && args != null && args[0] instanceof String sql) {
+                        RequestBudgetContext.recordStatement(sql);
+                    }
+                    return invoke(statement, method, args);
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.url.springstarterkit.config;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.url.springstarterkit.dto.ApiResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Writes {@link ApiResponse} envelopes without going through reflective bean serialization.
+ * The envelope fragments are pre-encoded UTF-8 bytes, messages are encoded once and cached,
+ * and the payload is written with an {@link ObjectWriter} resolved once per payload type.
+ */
+@Slf4j
+public class ApiResponseHttpMessageConverter extends AbstractHttpMessageConverter<ApiResponse<?>> {
+
+    private static final byte[] SUCCESS_PREFIX = "{\"success\":true,\"message\":".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] ERROR_PREFIX = "{\"success\":false,\"message\":".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] DATA_FIELD = ",\"data\":".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] NULL_VALUE = "null".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] SUFFIX = "}".getBytes(StandardCharsets.UTF_8);
+
+    // Messages are mostly constants, but error messages can carry request data, so the cache is capped
+    private static final int MAX_CACHED_MESSAGES = 512;
+
+    private final ObjectMapper objectMapper;
+    private final Map<String, byte[]> encodedMessages = new ConcurrentHashMap<>();
+    private final Map<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+    public ApiResponseHttpMessageConverter(ObjectMapper objectMapper) {
+        // No default charset: JSON is always UTF-8, and Jackson's converter sends a bare application/json too
+        super(MediaType.APPLICATION_JSON, new MediaType("application", "*+json"));
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return ApiResponse.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        // Request bodies are plain DTOs and stay with the default Jackson converter
+        return false;
+    }
+
+    @Override
+    protected ApiResponse<?> readInternal(Class<? extends ApiResponse<?>> clazz, HttpInputMessage inputMessage)
+            throws HttpMessageNotReadableException {
+        throw new HttpMessageNotReadableException("ApiResponse is a response-only type", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(ApiResponse<?> response, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        OutputStream out = outputMessage.getBody();
+        out.write(response.isSuccess() ? SUCCESS_PREFIX : ERROR_PREFIX);
+        out.write(encodeMessage(response.getMessage()));
+        out.write(DATA_FIELD);
+
+        Object data = response.getData();
+        if (data == null) {
+            out.write(NULL_VALUE);
+        } else {
+            writerFor(data.getClass()).writeValue(out, data);
+        }
+
+        out.write(SUFFIX);
+        out.flush();
+    }
+
+    private byte[] encodeMessage(String message) throws IOException {
+        if (message == null) {
+            return NULL_VALUE;
+        }
+        byte[] encoded = encodedMessages.get(message);
+        if (encoded != null) {
+            return encoded;
+        }
+        encoded = objectMapper.writeValueAsBytes(message);
+        if (encodedMessages.size() < MAX_CACHED_MESSAGES) {
+            encodedMessages.putIfAbsent(message, encoded);
+        }
+        return encoded;
+    }
+
+    private ObjectWriter writerFor(Class<?> type) {
+        return writers.computeIfAbsent(type, key -> {
+            log.debug("Resolving ObjectWriter for response payload type: {}", key.getName());
+            return objectMapper.writerFor(key).without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        });
+    }
+}
@@ -0,0 +1,19 @@
+package com.url.springstarterkit.config;
+
+import com.url.springstarterkit.security.AuthorityMaskInterceptor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@RequiredArgsConstructor
+public class AuthorizationConfig implements WebMvcConfigurer {
+
+    private final AuthorityMaskInterceptor authorityMaskInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(authorityMaskInterceptor);
+    }
+}
@@ -0,0 +1,52 @@
+package com.url.springstarterkit.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.url.springstarterkit.limiter.AdaptiveConcurrencyLimiter;
+import com.url.springstarterkit.limiter.ConcurrencyLimitFilter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+@ConditionalOnProperty(name = "application.limiter.enabled", havingValue = "true")
+public class ConcurrencyLimitConfig {
+
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${application.limiter.auth.initial-limit}") int authInitialLimit,
+            @Value("${application.limiter.auth.min-limit}") int authMinLimit,
+            @Value("${application.limiter.auth.max-limit}") int authMaxLimit,
+            @Value("${application.limiter.users.initial-limit}") int usersInitialLimit,
+            @Value("${application.limiter.users.min-limit}") int usersMinLimit,
+            @Value("${application.limiter.users.max-limit}") int usersMaxLimit,
+            @Value("${application.limiter.retry-after-seconds}") int retryAfterSeconds
+    ) {
+        AdaptiveConcurrencyLimiter authLimiter =
+                registerMetrics(new AdaptiveConcurrencyLimiter("auth", authInitialLimit, authMinLimit, authMaxLimit), meterRegistry);
+        AdaptiveConcurrencyLimiter userLimiter =
+                registerMetrics(new AdaptiveConcurrencyLimiter("users", usersInitialLimit, usersMinLimit, usersMaxLimit), meterRegistry);
+
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(
+                new ConcurrencyLimitFilter(authLimiter, userLimiter, objectMapper, meterRegistry, retryAfterSeconds));
+        // Ahead of the security filter chain so rejected requests cost no JWT or database work
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+
+    private static AdaptiveConcurrencyLimiter registerMetrics(AdaptiveConcurrencyLimiter limiter, MeterRegistry meterRegistry) {
+        Gauge.builder("http.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .tag("limiter", limiter.getName())
+                .register(meterRegistry);
+        Gauge.builder("http.concurrency.inflight", limiter, AdaptiveConcurrencyLimiter::getInflight)
+                .tag("limiter", limiter.getName())
+                .register(meterRegistry);
+        return limiter;
+    }
+}
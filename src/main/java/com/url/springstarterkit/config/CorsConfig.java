@@ -1,5 +1,6 @@
 package com.url.springstarterkit.config;
 
+import com.url.springstarterkit.security.JwtAuthenticationFilter;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
@@ -13,7 +14,7 @@ public class CorsConfig implements WebMvcConfigurer {
             .allowedOrigins("http://localhost:5173") // Your React app URL
             .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
             .allowedHeaders("*")
-            .exposedHeaders("Authorization") // Expose Authorization header for JWT
+            .exposedHeaders("Authorization", JwtAuthenticationFilter.RENEWED_TOKEN_HEADER) // Expose JWT and renewed JWT headers
             .allowCredentials(true)
             .maxAge(3600); // Cache preflight requests for 1 hour
     }
@@ -0,0 +1,47 @@
+package com.url.springstarterkit.config;
+
+import com.url.springstarterkit.budget.PerformanceBudgetFilter;
+import com.url.springstarterkit.budget.QueryBudgetInterceptor;
+import com.url.springstarterkit.budget.SqlStatementCounter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Per-request SQL statement and allocation budgets. Disabled by default; enable it in tests or CI,
+ * together with {@code fail-on-violation}, to make an endpoint that exceeds its budget fail.
+ */
+@Configuration
+@ConditionalOnProperty(name = "application.perf.budget.enabled", havingValue = "true")
+public class PerformanceBudgetConfig implements WebMvcConfigurer {
+
+    // Static, so the data source is wrapped before anything else can take a connection from it
+    @Bean
+    public static SqlStatementCounter sqlStatementCounter() {
+        return new SqlStatementCounter();
+    }
+
+    @Bean
+    public FilterRegistrationBean<PerformanceBudgetFilter> performanceBudgetFilter(
+            @Value("${application.perf.budget.default-statements}") int defaultStatements,
+            @Value("${application.perf.budget.default-allocated-kb}") long defaultAllocatedKb,
+            @Value("${application.perf.budget.repeated-statement-threshold}") int repeatedStatementThreshold,
+            @Value("${application.perf.budget.fail-on-violation}") boolean failOnViolation
+    ) {
+        FilterRegistrationBean<PerformanceBudgetFilter> registration = new FilterRegistrationBean<>(
+                new PerformanceBudgetFilter(defaultStatements, defaultAllocatedKb, repeatedStatementThreshold, failOnViolation));
+        // Outermost, so the JWT filter's blacklist and user lookups count against the endpoint
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new QueryBudgetInterceptor());
+    }
+}
@@ -0,0 +1,40 @@
+package com.url.springstarterkit.config;
+
+import com.url.springstarterkit.sharding.ShardRoutingDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces the single data source with one routing across shards. Shard 0 is {@code spring.datasource}
+ * and keeps every table that is not sharded; each URL in {@code application.sharding.shard-urls}
+ * adds a shard with the same credentials and driver.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "application.sharding.enabled", havingValue = "true")
+public class ShardingConfig {
+
+    @Bean
+    @Primary
+    public ShardRoutingDataSource dataSource(
+            DataSourceProperties properties,
+            @Value("${application.sharding.shard-urls}") String[] shardUrls
+    ) {
+        List<DataSource> shards = new ArrayList<>();
+        shards.add(properties.initializeDataSourceBuilder().build());
+        for (String url : shardUrls) {
+            shards.add(properties.initializeDataSourceBuilder().url(url.trim()).build());
+        }
+        log.info("Configured {} user data shards", shards.size());
+        return new ShardRoutingDataSource(shards);
+    }
+}
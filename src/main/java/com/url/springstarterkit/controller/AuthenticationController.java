@@ -1,12 +1,18 @@
 package com.url.springstarterkit.controller;
 
+import com.url.springstarterkit.budget.QueryBudget;
 import com.url.springstarterkit.dto.AuthenticationDTO;
 import com.url.springstarterkit.dto.AuthenticationResponse;
+import com.url.springstarterkit.dto.IntrospectionRequest;
+import com.url.springstarterkit.dto.IntrospectionResponse;
 import com.url.springstarterkit.dto.LogoutRequest;
 import com.url.springstarterkit.dto.LogoutResponse;
 import com.url.springstarterkit.dto.RegisterDTO;
 import com.url.springstarterkit.exception.AuthenticationException;
+import com.url.springstarterkit.model.Role;
+import com.url.springstarterkit.security.RequireAuthority;
 import com.url.springstarterkit.service.AuthenticationService;
+import com.url.springstarterkit.service.TokenIntrospectionService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -21,21 +27,34 @@ import org.springframework.web.bind.annotation.*;
 public class AuthenticationController {
 
     private final AuthenticationService authenticationService;
+    private final TokenIntrospectionService tokenIntrospectionService;
 
     @PostMapping("/register")
+    // Almost all of the allocation is BCrypt, here and in login
+    @QueryBudget(statements = 3, allocatedKb = 2736)
     public ResponseEntity<AuthenticationResponse> register(@Valid @RequestBody RegisterDTO request) {
         return ResponseEntity.ok(authenticationService.register(request));
     }
 
     @PostMapping("/login")
+    @QueryBudget(statements = 4, allocatedKb = 2600)
     public ResponseEntity<AuthenticationResponse> login(@Valid @RequestBody AuthenticationDTO request) {
         return ResponseEntity.ok(authenticationService.authenticate(request));
     }
 
     @PostMapping("/logout")
+    // None with the revocation log enabled; without it the revocation is one batched insert
+    @QueryBudget(statements = 1, allocatedKb = 176)
     public ResponseEntity<LogoutResponse> logout(@Valid @RequestBody LogoutRequest request) {
         log.info("Processing logout request");
         LogoutResponse response = authenticationService.logout(request.getToken());
         return ResponseEntity.ok(response);
     }
-} 
\ No newline at end of file
+
+    @PostMapping("/introspect")
+    @RequireAuthority({Role.RoleName.ADMIN, Role.RoleName.SERVICE})
+    @QueryBudget(statements = 3, allocatedKb = 352)
+    public ResponseEntity<IntrospectionResponse> introspect(@Valid @RequestBody IntrospectionRequest request) {
+        return ResponseEntity.ok(tokenIntrospectionService.introspect(request.getTokens()));
+    }
+}
\ No newline at end of file
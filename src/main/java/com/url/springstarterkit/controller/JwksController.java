@@ -0,0 +1,41 @@
+package com.url.springstarterkit.controller;
+
+import com.url.springstarterkit.budget.QueryBudget;
+import com.url.springstarterkit.security.JwtKeyStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Duration;
+
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+public class JwksController {
+
+    private final JwtKeyStore jwtKeyStore;
+
+    @Value("${application.security.jwt.jwks.max-age-seconds}")
+    private long maxAgeSeconds;
+
+    @GetMapping("/.well-known/jwks.json")
+    @QueryBudget(statements = 0, allocatedKb = 104)
+    public ResponseEntity<byte[]> jwks(WebRequest request) {
+        // The key set only changes on restart, so it is served pre-serialized with a content hash ETag
+        if (request.checkNotModified(jwtKeyStore.getJwksEtag())) {
+            log.debug("JWKS not modified");
+            return null;
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.maxAge(Duration.ofSeconds(maxAgeSeconds)).cachePublic())
+                .eTag(jwtKeyStore.getJwksEtag())
+                .body(jwtKeyStore.getJwks());
+    }
+}
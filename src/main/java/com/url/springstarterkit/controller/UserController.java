@@ -1,15 +1,27 @@
 package com.url.springstarterkit.controller;
 
+import com.url.springstarterkit.budget.QueryBudget;
 import com.url.springstarterkit.dto.ApiResponse;
 import com.url.springstarterkit.dto.PaginationResponse;
+import com.url.springstarterkit.dto.RoleAssignmentRequest;
+import com.url.springstarterkit.dto.RoleAssignmentResponse;
+import com.url.springstarterkit.dto.UserBatchRequest;
+import com.url.springstarterkit.dto.UserBatchResponse;
+import com.url.springstarterkit.dto.UserChangesResponse;
 import com.url.springstarterkit.dto.UserResponse;
+import com.url.springstarterkit.dto.UserStatsResponse;
+import com.url.springstarterkit.model.Role;
+import com.url.springstarterkit.security.RequireAuthority;
+import com.url.springstarterkit.service.UserRoleService;
 import com.url.springstarterkit.service.UserService;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @Slf4j
 @RestController
 @RequestMapping("/api/v1/users")
@@ -17,18 +29,21 @@ import org.springframework.web.bind.annotation.*;
 public class UserController {
 
     private final UserService userService;
+    private final UserRoleService userRoleService;
 
     @GetMapping
-    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    @QueryBudget(statements = 4, allocatedKb = 384)
+    @RequireAuthority(Role.RoleName.ADMIN)
     public ResponseEntity<ApiResponse<PaginationResponse<UserResponse>>> getAllUsers(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "id") String sortBy,
-            @RequestParam(defaultValue = "asc") String direction
+            @RequestParam(defaultValue = "asc") String direction,
+            @RequestParam(required = false) String fields
     ) {
         try {
             log.info("Received request to get all users with pagination");
-            PaginationResponse<UserResponse> response = userService.getAllUsers(page, size, sortBy, direction);
+            PaginationResponse<UserResponse> response = userService.getAllUsers(page, size, sortBy, direction, fields);
             return ResponseEntity.ok(ApiResponse.success("Users retrieved successfully", response));
         } catch (Exception e) {
             log.error("Error in getAllUsers: {}", e.getMessage(), e);
@@ -36,12 +51,106 @@ public class UserController {
         }
     }
 
+    @GetMapping(params = "ids")
+    @QueryBudget(statements = 4, allocatedKb = 376)
+    @RequireAuthority({Role.RoleName.ADMIN, Role.RoleName.USER})
+    public ResponseEntity<ApiResponse<UserBatchResponse>> getUsersByIds(
+            @RequestParam List<Long> ids,
+            @RequestParam(required = false) String fields
+    ) {
+        try {
+            log.info("Received request to get {} users by id", ids.size());
+            UserBatchResponse response = userService.getUsersByIds(ids, fields);
+            return ResponseEntity.ok(ApiResponse.success("Users retrieved successfully", response));
+        } catch (Exception e) {
+            log.error("Error in getUsersByIds: {}", e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    @PostMapping("/batch")
+    @QueryBudget(statements = 4, allocatedKb = 400)
+    @RequireAuthority({Role.RoleName.ADMIN, Role.RoleName.USER})
+    public ResponseEntity<ApiResponse<UserBatchResponse>> getUsersByIdsBatch(@Valid @RequestBody UserBatchRequest request) {
+        try {
+            log.info("Received batch request to get {} users by id", request.getIds().size());
+            UserBatchResponse response = userService.getUsersByIds(request.getIds(), request.getFields());
+            return ResponseEntity.ok(ApiResponse.success("Users retrieved successfully", response));
+        } catch (Exception e) {
+            log.error("Error in getUsersByIdsBatch: {}", e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    @GetMapping("/stats")
+    @QueryBudget(statements = 2, allocatedKb = 240)
+    @RequireAuthority(Role.RoleName.ADMIN)
+    public ResponseEntity<ApiResponse<UserStatsResponse>> getUserStats() {
+        try {
+            log.info("Received request to get user statistics");
+            UserStatsResponse response = userService.getStats();
+            return ResponseEntity.ok(ApiResponse.success("User statistics retrieved successfully", response));
+        } catch (Exception e) {
+            log.error("Error in getUserStats: {}", e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    @GetMapping("/changes")
+    @QueryBudget(statements = 4, allocatedKb = 448)
+    @RequireAuthority(Role.RoleName.ADMIN)
+    public ResponseEntity<ApiResponse<UserChangesResponse>> getUserChanges(
+            @RequestParam(required = false) String since,
+            @RequestParam(defaultValue = "100") int limit
+    ) {
+        try {
+            log.info("Received request to get user changes since: {}", since);
+            UserChangesResponse response = userService.getChangesSince(since, limit);
+            return ResponseEntity.ok(ApiResponse.success("User changes retrieved successfully", response));
+        } catch (Exception e) {
+            log.error("Error in getUserChanges: {}", e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    @PostMapping("/roles/grant")
+    @QueryBudget(statements = 8, allocatedKb = 432)
+    @RequireAuthority(Role.RoleName.ADMIN)
+    public ResponseEntity<ApiResponse<RoleAssignmentResponse>> grantRole(@Valid @RequestBody RoleAssignmentRequest request) {
+        try {
+            log.info("Received request to grant role {} to {} users", request.getRole(), request.getUserIds().size());
+            RoleAssignmentResponse response = userRoleService.grantRole(request.getRole(), request.getUserIds());
+            return ResponseEntity.ok(ApiResponse.success("Role granted successfully", response));
+        } catch (Exception e) {
+            log.error("Error in grantRole: {}", e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    @PostMapping("/roles/revoke")
+    @QueryBudget(statements = 8, allocatedKb = 472)
+    @RequireAuthority(Role.RoleName.ADMIN)
+    public ResponseEntity<ApiResponse<RoleAssignmentResponse>> revokeRole(@Valid @RequestBody RoleAssignmentRequest request) {
+        try {
+            log.info("Received request to revoke role {} from {} users", request.getRole(), request.getUserIds().size());
+            RoleAssignmentResponse response = userRoleService.revokeRole(request.getRole(), request.getUserIds());
+            return ResponseEntity.ok(ApiResponse.success("Role revoked successfully", response));
+        } catch (Exception e) {
+            log.error("Error in revokeRole: {}", e.getMessage(), e);
+            throw e;
+        }
+    }
+
     @GetMapping("/{id}")
-    @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_USER')")
-    public ResponseEntity<ApiResponse<UserResponse>> getUserById(@PathVariable Long id) {
+    @QueryBudget(statements = 4, allocatedKb = 296)
+    @RequireAuthority({Role.RoleName.ADMIN, Role.RoleName.USER})
+    public ResponseEntity<ApiResponse<UserResponse>> getUserById(
+            @PathVariable Long id,
+            @RequestParam(required = false) String fields
+    ) {
         try {
             log.info("Received request to get user with id: {}", id);
-            UserResponse response = userService.getUserById(id);
+            UserResponse response = userService.getUserById(id, fields);
             return ResponseEntity.ok(ApiResponse.success("User retrieved successfully", response));
         } catch (Exception e) {
             log.error("Error in getUserById: {}", e.getMessage(), e);
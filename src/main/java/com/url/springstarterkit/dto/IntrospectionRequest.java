@@ -0,0 +1,17 @@
+package com.url.springstarterkit.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IntrospectionRequest {
+    @NotEmpty(message = "At least one token is required")
+    private List<@NotBlank(message = "Token must not be blank") String> tokens;
+}
@@ -0,0 +1,14 @@
+package com.url.springstarterkit.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IntrospectionResponse {
+    private List<TokenIntrospection> results;
+}
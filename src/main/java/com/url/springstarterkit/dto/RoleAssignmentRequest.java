@@ -0,0 +1,21 @@
+package com.url.springstarterkit.dto;
+
+import com.url.springstarterkit.model.Role;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoleAssignmentRequest {
+    @NotNull(message = "Role is required")
+    private Role.RoleName role;
+
+    @NotEmpty(message = "At least one user id is required")
+    private List<@NotNull(message = "User id must not be null") Long> userIds;
+}
@@ -0,0 +1,14 @@
+package com.url.springstarterkit.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoleAssignmentResponse {
+    private String role;
+    private int requested;
+    private int changed;
+}
@@ -0,0 +1,23 @@
+package com.url.springstarterkit.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TokenIntrospection {
+    private boolean active;
+    private String subject;
+    private List<String> roles;
+    private Long expiresAt;
+
+    public static TokenIntrospection inactive() {
+        return new TokenIntrospection(false, null, null, null);
+    }
+}
@@ -0,0 +1,19 @@
+package com.url.springstarterkit.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserBatchRequest {
+    @NotEmpty(message = "At least one user id is required")
+    private List<@NotNull(message = "User id must not be null") Long> ids;
+
+    private String fields;
+}
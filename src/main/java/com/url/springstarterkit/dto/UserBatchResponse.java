@@ -0,0 +1,17 @@
+package com.url.springstarterkit.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserBatchResponse {
+    // One entry per requested id, in request order
+    private List<UserLookupResult> results;
+    private int found;
+    private int notFound;
+}
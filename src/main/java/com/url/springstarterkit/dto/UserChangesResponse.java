@@ -0,0 +1,16 @@
+package com.url.springstarterkit.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserChangesResponse {
+    private List<UserResponse> changes;
+    private String nextCursor;
+    private boolean hasMore;
+}
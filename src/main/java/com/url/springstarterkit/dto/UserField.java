@@ -0,0 +1,43 @@
+package com.url.springstarterkit.dto;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Fields of {@link UserResponse} that can be requested through the {@code fields} query parameter.
+ */
+public enum UserField {
+    ID,
+    EMAIL,
+    ROLES;
+
+    private static final String UNKNOWN_FIELD = "Unknown field '%s'. Allowed fields: %s";
+
+    public static Set<UserField> parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return EnumSet.allOf(UserField.class);
+        }
+        Set<UserField> selected = EnumSet.noneOf(UserField.class);
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            try {
+                selected.add(UserField.valueOf(name.toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(String.format(UNKNOWN_FIELD, name, allowedFields()));
+            }
+        }
+        return selected.isEmpty() ? EnumSet.allOf(UserField.class) : selected;
+    }
+
+    private static String allowedFields() {
+        return Arrays.stream(values())
+                .map(field -> field.name().toLowerCase(Locale.ROOT))
+                .collect(Collectors.joining(", "));
+    }
+}
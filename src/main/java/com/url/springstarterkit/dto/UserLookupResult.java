@@ -0,0 +1,17 @@
+package com.url.springstarterkit.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UserLookupResult {
+    private Long id;
+    private boolean found;
+    // Absent when no user exists with this id
+    private UserResponse user;
+}
@@ -1,17 +1,18 @@
 package com.url.springstarterkit.dto;
 
-import com.url.springstarterkit.model.Role;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 
-import java.util.Set;
+import java.util.List;
 
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class UserResponse {
     private Long id;
     private String email;
-    private Set<Role> roles;
-} 
\ No newline at end of file
+    private List<String> roles;
+}
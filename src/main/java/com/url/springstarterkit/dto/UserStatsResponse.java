@@ -0,0 +1,16 @@
+package com.url.springstarterkit.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserStatsResponse {
+    private long totalUsers;
+    private Map<String, Long> usersByRole;
+    private Map<String, Long> registrationsByDay;
+}
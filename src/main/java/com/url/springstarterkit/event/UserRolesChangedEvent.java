@@ -0,0 +1,15 @@
+package com.url.springstarterkit.event;
+
+import com.url.springstarterkit.model.Role;
+
+import java.util.Set;
+
+/**
+ * Published when a role is granted to or revoked from users outside of the entity lifecycle,
+ * so anything caching principals or authorities for those users can drop them. It is published
+ * inside the shard transaction that made the change: listeners that invalidate or reload state
+ * must use {@code @TransactionalEventListener} with the default {@code AFTER_COMMIT} phase so they
+ * neither see the old roles nor act on a change that is rolled back.
+ */
+public record UserRolesChangedEvent(Role.RoleName role, Set<Long> userIds, boolean granted) {
+}
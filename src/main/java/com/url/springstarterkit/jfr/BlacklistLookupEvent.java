@@ -0,0 +1,22 @@
+package com.url.springstarterkit.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.url.springstarterkit.BlacklistLookup")
+@Label("Blacklist Lookup")
+@Description("Revocation check for one or more tokens")
+@Category({"Spring Starter Kit", "Authentication"})
+@StackTrace(false)
+public class BlacklistLookupEvent extends Event {
+
+    @Label("Tokens")
+    public int tokens;
+
+    @Label("Revoked")
+    public int revoked;
+}
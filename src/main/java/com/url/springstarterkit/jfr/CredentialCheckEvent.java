@@ -0,0 +1,24 @@
+package com.url.springstarterkit.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.url.springstarterkit.CredentialCheck")
+@Label("Credential Check")
+@Description("Full username and password authentication for a login")
+@Category({"Spring Starter Kit", "Authentication"})
+@StackTrace(false)
+public class CredentialCheckEvent extends Event {
+
+    // Never the email itself: recordings are shared, see SubjectHash
+    @Label("Subject Hash")
+    @Description("Per-JVM pseudonym of the user")
+    public String subjectHash;
+
+    @Label("Success")
+    public boolean success;
+}
@@ -0,0 +1,24 @@
+package com.url.springstarterkit.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+@Name("com.url.springstarterkit.JwtVerification")
+@Label("JWT Verification")
+@Description("Signature check and claims parsing of a JWT")
+@Category({"Spring Starter Kit", "Authentication"})
+@StackTrace(false)
+public class JwtVerificationEvent extends Event {
+
+    @Label("Valid")
+    public boolean valid;
+
+    @Label("Token Age")
+    @Timespan(Timespan.MILLISECONDS)
+    public long tokenAge;
+}
@@ -0,0 +1,22 @@
+package com.url.springstarterkit.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.url.springstarterkit.PasswordHash")
+@Label("Password Hash")
+@Description("BCrypt password encode or match")
+@Category({"Spring Starter Kit", "Authentication"})
+@StackTrace(false)
+public class PasswordHashEvent extends Event {
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Matched")
+    public boolean matched;
+}
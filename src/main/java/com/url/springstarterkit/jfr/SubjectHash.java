@@ -0,0 +1,48 @@
+package com.url.springstarterkit.jfr;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.HexFormat;
+
+/**
+ * Pseudonymous identifier for users in flight recordings: a truncated HMAC under a key generated
+ * per JVM. Events for the same user correlate within one recording, but recordings contain no
+ * emails and the values cannot be reversed by hashing candidate addresses.
+ */
+public final class SubjectHash {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int HASH_BYTES = 8;
+    private static final SecretKeySpec KEY = generateKey();
+    private static final ThreadLocal<Mac> MAC = ThreadLocal.withInitial(SubjectHash::newMac);
+
+    private SubjectHash() {
+    }
+
+    public static String of(String subject) {
+        if (subject == null) {
+            return null;
+        }
+        byte[] digest = MAC.get().doFinal(subject.getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(digest, 0, HASH_BYTES);
+    }
+
+    private static SecretKeySpec generateKey() {
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        return new SecretKeySpec(key, ALGORITHM);
+    }
+
+    private static Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(KEY);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+}
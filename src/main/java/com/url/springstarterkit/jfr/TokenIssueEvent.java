@@ -0,0 +1,27 @@
+package com.url.springstarterkit.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+@Name("com.url.springstarterkit.TokenIssue")
+@Label("Token Issue")
+@Description("Building and signing a new JWT")
+@Category({"Spring Starter Kit", "Authentication"})
+@StackTrace(false)
+public class TokenIssueEvent extends Event {
+
+    // Never the email itself: recordings are shared, see SubjectHash
+    @Label("Subject Hash")
+    @Description("Per-JVM pseudonym of the user")
+    public String subjectHash;
+
+    @Label("Expiration")
+    @Timespan(Timespan.MILLISECONDS)
+    public long expiration;
+}
@@ -0,0 +1,25 @@
+package com.url.springstarterkit.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.url.springstarterkit.UserMapping")
+@Label("User Mapping")
+@Description("Loading users and mapping them to responses in UserService")
+@Category({"Spring Starter Kit", "Persistence"})
+@StackTrace(false)
+public class UserMappingEvent extends Event {
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Rows Returned")
+    public int rowsReturned;
+
+    @Label("Roles Loaded")
+    public boolean rolesLoaded;
+}
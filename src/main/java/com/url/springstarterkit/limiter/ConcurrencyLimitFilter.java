@@ -0,0 +1,80 @@
+package com.url.springstarterkit.limiter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.url.springstarterkit.dto.ApiResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Sheds load before a request reaches security or the controllers. Credential endpoints and user
+ * reads have separate limiters so BCrypt pressure and database pressure do not starve each other.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final String SERVICE_BUSY = "Service is busy. Please retry later.";
+
+    private final AdaptiveConcurrencyLimiter authLimiter;
+    private final AdaptiveConcurrencyLimiter userLimiter;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final int retryAfterSeconds;
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        AdaptiveConcurrencyLimiter limiter = limiterFor(request.getRequestURI());
+        if (limiter == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        if (!limiter.tryAcquire()) {
+            log.warn("Rejecting request to {} - {} limiter at capacity ({})",
+                    request.getRequestURI(), limiter.getName(), limiter.getLimit());
+            meterRegistry.counter("http.concurrency.rejected", "limiter", limiter.getName()).increment();
+            reject(response);
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            limiter.release(System.nanoTime() - start);
+        }
+    }
+
+    private AdaptiveConcurrencyLimiter limiterFor(String path) {
+        if (path.equals("/api/v1/auth/login") || path.equals("/api/v1/auth/register")) {
+            return authLimiter;
+        }
+        if (path.startsWith("/api/v1/users")) {
+            return userLimiter;
+        }
+        return null;
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), ApiResponse.error(SERVICE_BUSY));
+    }
+}
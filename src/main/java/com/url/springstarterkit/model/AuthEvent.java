@@ -0,0 +1,43 @@
+package com.url.springstarterkit.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "auth_events", indexes = {
+    @Index(name = "idx_auth_events_email", columnList = "email"),
+    @Index(name = "idx_auth_events_occurred_at", columnList = "occurred_at")
+})
+public class AuthEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private Type type;
+
+    @Column(nullable = false)
+    private String email;
+
+    @Column(name = "occurred_at", nullable = false)
+    private Instant occurredAt;
+
+    public AuthEvent(Type type, String email, Instant occurredAt) {
+        this(null, type, email, occurredAt);
+    }
+
+    public enum Type {
+        LOGIN_SUCCESS,
+        LOGIN_FAILURE,
+        LOGOUT
+    }
+}
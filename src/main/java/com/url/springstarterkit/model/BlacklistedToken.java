@@ -11,12 +11,16 @@ import java.time.Instant;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "blacklisted_tokens")
+@Table(name = "blacklisted_tokens", indexes = {
+    @Index(name = "idx_blacklisted_tokens_expiry_date", columnList = "expiry_date"),
+    @Index(name = "idx_blacklisted_tokens_created_at", columnList = "created_at")
+})
 public class BlacklistedToken {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // TokenDigest of the revoked token; rows revoked before digests were stored hold the raw token
     @Column(nullable = false, unique = true)
     private String token;
 
@@ -29,6 +29,13 @@ public class Role {
 
     public enum RoleName {
         USER,
-        ADMIN
+        ADMIN,
+        // Gateways and downstream services that introspect tokens
+        SERVICE;
+
+        // Bit position is the ordinal, so new roles must be appended to keep existing masks stable
+        public long mask() {
+            return 1L << ordinal();
+        }
     }
 } 
\ No newline at end of file
@@ -1,14 +1,20 @@
 package com.url.springstarterkit.model;
 
 import jakarta.persistence.*;
+import com.url.springstarterkit.security.MaskedPrincipal;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import java.time.Instant;
 import java.util.Collection;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -18,8 +24,10 @@ import java.util.stream.Collectors;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "users")
-public class User implements UserDetails {
+@Table(name = "users", indexes = {
+    @Index(name = "idx_users_change_seq", columnList = "change_seq")
+})
+public class User implements UserDetails, MaskedPrincipal {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -39,6 +47,50 @@ public class User implements UserDetails {
     )
     private Set<Role> roles;
 
+    @Column(name = "last_login_at")
+    private Instant lastLoginAt;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    // Position in the change feed, assigned after commit by UserChangeSequencer; null while a change is pending.
+    // Bulk updates that bypass Hibernate must reset it themselves
+    @Column(name = "change_seq")
+    private Long changeSeq;
+
+    // Derived from roles on first use and reset whenever they are replaced
+    @Transient
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private Long authorityMask;
+
+    @PreUpdate
+    void markChanged() {
+        changeSeq = null;
+    }
+
+    public void setRoles(Set<Role> roles) {
+        this.roles = roles;
+        this.authorityMask = null;
+    }
+
+    @Override
+    public long getAuthorityMask() {
+        if (authorityMask == null) {
+            long mask = 0;
+            for (Role role : roles) {
+                mask |= role.getName().mask();
+            }
+            authorityMask = mask;
+        }
+        return authorityMask;
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return roles.stream()
@@ -0,0 +1,40 @@
+package com.url.springstarterkit.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * One stripe of a user counter; the counter's value is the sum of its stripes. Writers pick a
+ * stripe at random, so concurrent registrations rarely wait on each other's row locks.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "user_statistic_stripes")
+@IdClass(UserStatistic.Key.class)
+public class UserStatistic {
+
+    @Id
+    @Column(name = "stat_key", length = 64)
+    private String key;
+
+    @Id
+    @Column(name = "stripe")
+    private int stripe;
+
+    @Column(name = "stat_value", nullable = false)
+    private long value;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String key;
+        private int stripe;
+    }
+}
@@ -5,14 +5,27 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
-import java.util.Optional;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
 
 public interface BlacklistedTokenRepository extends JpaRepository<BlacklistedToken, Long> {
-    Optional<BlacklistedToken> findByToken(String token);
+    boolean existsByTokenIn(Collection<String> tokens);
 
+    @Query("SELECT bt.token FROM BlacklistedToken bt WHERE bt.token IN :tokens")
+    Set<String> findBlacklistedTokens(@Param("tokens") Collection<String> tokens);
+
+    // Walks the expiry_date index; DELETE ... LIMIT is MySQL-only, so the chunk is selected first
+    @Query(value = "SELECT id FROM blacklisted_tokens WHERE expiry_date < :now ORDER BY expiry_date LIMIT :limit",
+            nativeQuery = true)
+    List<Long> findExpiredChunk(@Param("now") Instant now, @Param("limit") int limit);
+
+    // Deletes by primary key, so each chunk only locks the rows it deletes
+    @Transactional
     @Modifying
-    @Query("DELETE FROM BlacklistedToken bt WHERE bt.expiryDate < :now")
-    void deleteExpiredTokens(@Param("now") Instant now);
+    @Query("DELETE FROM BlacklistedToken bt WHERE bt.id IN :ids AND bt.expiryDate < :now")
+    int deleteExpired(@Param("ids") Collection<Long> ids, @Param("now") Instant now);
 } 
\ No newline at end of file
@@ -1,11 +1,43 @@
 package com.url.springstarterkit.repository;
 
 import com.url.springstarterkit.model.User;
+import com.url.springstarterkit.repository.projection.UserChange;
+import com.url.springstarterkit.repository.projection.UserRoleView;
+import com.url.springstarterkit.repository.projection.UserSummary;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
+
+    @Query("SELECT DISTINCT u FROM User u LEFT JOIN FETCH u.roles WHERE u.email IN :emails")
+    List<User> findAllWithRolesByEmailIn(@Param("emails") Collection<String> emails);
+
+    // Returns a plain list so no count query runs; totals come from UserStatisticsService
+    @Query("SELECT u.id AS id, u.email AS email FROM User u")
+    List<UserSummary> findAllSummaries(Pageable pageable);
+
+    @Query("SELECT u.id AS id, u.email AS email FROM User u WHERE u.id IN :ids")
+    List<UserSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Id-only variants for responses that do not include the email; getEmail() returns null on them
+    @Query("SELECT u.id AS id FROM User u")
+    List<UserSummary> findAllIdSummaries(Pageable pageable);
+
+    @Query("SELECT u.id AS id FROM User u WHERE u.id IN :ids")
+    List<UserSummary> findIdSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT u.id AS userId, r.name AS roleName FROM User u JOIN u.roles r WHERE u.id IN :ids")
+    List<UserRoleView> findRoleNamesByUserIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT u.id AS id, u.email AS email, u.changeSeq AS changeSeq FROM User u " +
+            "WHERE u.changeSeq > :afterSeq ORDER BY u.changeSeq")
+    List<UserChange> findChangesSince(@Param("afterSeq") long afterSeq, Pageable pageable);
 } 
\ No newline at end of file
@@ -0,0 +1,5 @@
+package com.url.springstarterkit.repository.projection;
+
+public interface UserChange extends UserSummary {
+    Long getChangeSeq();
+}
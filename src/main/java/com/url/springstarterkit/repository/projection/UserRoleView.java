@@ -0,0 +1,9 @@
+package com.url.springstarterkit.repository.projection;
+
+import com.url.springstarterkit.model.Role;
+
+public interface UserRoleView {
+    Long getUserId();
+
+    Role.RoleName getRoleName();
+}
@@ -0,0 +1,7 @@
+package com.url.springstarterkit.repository.projection;
+
+public interface UserSummary {
+    Long getId();
+
+    String getEmail();
+}
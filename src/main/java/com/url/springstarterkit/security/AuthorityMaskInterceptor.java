@@ -0,0 +1,66 @@
+package com.url.springstarterkit.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.lang.NonNull;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Enforces {@link RequireAuthority} by AND-ing the handler's required mask, resolved once per method,
+ * with the mask carried by the current authentication.
+ */
+@Slf4j
+@Component
+public class AuthorityMaskInterceptor implements HandlerInterceptor {
+
+    private static final long NO_REQUIREMENT = 0L;
+
+    private final Map<Method, Long> requiredMasks = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean preHandle(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull Object handler
+    ) {
+        if (!(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+        long required = requiredMasks.computeIfAbsent(handlerMethod.getMethod(), method -> resolveMask(handlerMethod));
+        if (required == NO_REQUIREMENT) {
+            return true;
+        }
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            throw new AccessDeniedException("Access denied");
+        }
+        long granted = authentication instanceof MaskedAuthenticationToken masked
+                ? masked.getAuthorityMask()
+                : AuthorityMasks.of(authentication.getAuthorities());
+        if ((granted & required) == 0) {
+            log.debug("Access denied to {} for {}", request.getRequestURI(), authentication.getName());
+            throw new AccessDeniedException("Access denied");
+        }
+        return true;
+    }
+
+    private static long resolveMask(HandlerMethod handlerMethod) {
+        RequireAuthority annotation = AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getMethod(), RequireAuthority.class);
+        if (annotation == null) {
+            annotation = AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getBeanType(), RequireAuthority.class);
+        }
+        return annotation == null ? NO_REQUIREMENT : AuthorityMasks.of(annotation.value());
+    }
+}
@@ -0,0 +1,34 @@
+package com.url.springstarterkit.security;
+
+import com.url.springstarterkit.model.Role;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+public final class AuthorityMasks {
+
+    private static final Map<String, Long> MASKS_BY_AUTHORITY = Arrays.stream(Role.RoleName.values())
+            .collect(Collectors.toUnmodifiableMap(role -> "ROLE_" + role.name(), Role.RoleName::mask));
+
+    private AuthorityMasks() {
+    }
+
+    public static long of(Role.RoleName... roles) {
+        long mask = 0;
+        for (Role.RoleName role : roles) {
+            mask |= role.mask();
+        }
+        return mask;
+    }
+
+    public static long of(Collection<? extends GrantedAuthority> authorities) {
+        long mask = 0;
+        for (GrantedAuthority authority : authorities) {
+            mask |= MASKS_BY_AUTHORITY.getOrDefault(authority.getAuthority(), 0L);
+        }
+        return mask;
+    }
+}
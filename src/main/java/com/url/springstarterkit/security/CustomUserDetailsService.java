@@ -3,6 +3,7 @@ package com.url.springstarterkit.security;
 import com.url.springstarterkit.exception.ResourceNotFoundException;
 import com.url.springstarterkit.model.User;
 import com.url.springstarterkit.repository.UserRepository;
+import com.url.springstarterkit.sharding.ShardRouter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -14,10 +15,11 @@ import org.springframework.stereotype.Service;
 public class CustomUserDetailsService implements UserDetailsService {
 
     private final UserRepository userRepository;
+    private final ShardRouter shardRouter;
 
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        return userRepository.findByEmail(email)
+        return shardRouter.onShardForEmail(email, () -> userRepository.findByEmail(email))
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with email: " + email));
     }
 } 
\ No newline at end of file
@@ -1,6 +1,9 @@
 package com.url.springstarterkit.security;
 
+import com.url.springstarterkit.jfr.SubjectHash;
+import com.url.springstarterkit.jfr.UserDetailsLoadEvent;
 import com.url.springstarterkit.service.TokenBlacklistService;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -8,11 +11,12 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.lang.NonNull;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
@@ -23,6 +27,9 @@ import java.io.IOException;
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    public static final String RENEWED_TOKEN_HEADER = "X-Renewed-Token";
+    private static final RequestMatcher NO_RENEWAL_PATHS = new AntPathRequestMatcher("/api/v1/auth/**");
+
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
     private final TokenBlacklistService tokenBlacklistService;
@@ -46,30 +53,50 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         jwt = authHeader.substring(7);
-        
-        if (tokenBlacklistService.isTokenBlacklisted(jwt)) {
+
+        // Verified once; the revocation, subject, validity and renewal checks all read these claims
+        final Claims claims = jwtService.extractAllClaims(jwt);
+
+        if (tokenBlacklistService.isTokenBlacklisted(jwt, jwtService.extractSessionId(claims))) {
             log.warn("Blacklisted token detected");
             filterChain.doFilter(request, response);
             return;
         }
-        
-        userEmail = jwtService.extractUsername(jwt);
+
+        userEmail = claims.getSubject();
         log.debug("Extracted user email from JWT: {}", userEmail);
 
         if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
             log.debug("Loading user details for: {}", userEmail);
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
+            UserDetailsLoadEvent loadEvent = new UserDetailsLoadEvent();
+            loadEvent.begin();
+            UserDetails userDetails;
+            try {
+                userDetails = this.userDetailsService.loadUserByUsername(userEmail);
+                loadEvent.found = true;
+            } finally {
+                loadEvent.end();
+                if (loadEvent.shouldCommit()) {
+                    loadEvent.subjectHash = SubjectHash.of(userEmail);
+                    loadEvent.commit();
+                }
+            }
             
-            if (jwtService.isTokenValid(jwt, userDetails)) {
+            if (jwtService.isTokenValid(claims, userDetails)) {
                 log.info("JWT token is valid for user: {}", userEmail);
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                MaskedAuthenticationToken authToken = new MaskedAuthenticationToken(
                     userDetails,
-                    null,
                     userDetails.getAuthorities()
                 );
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authToken);
                 log.debug("Authentication set in SecurityContext for user: {}", userEmail);
+
+                // Logging out must not hand back a fresh token, and login issues its own
+                if (!NO_RENEWAL_PATHS.matches(request)) {
+                    // Issued only if the request then succeeds; authorization has not run yet
+                    TokenRenewalResponseAdvice.requestRenewal(request, claims, userDetails);
+                }
             } else {
                 log.warn("Invalid JWT token for user: {}", userEmail);
             }
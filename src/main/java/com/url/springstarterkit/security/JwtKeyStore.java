@@ -0,0 +1,184 @@
+package com.url.springstarterkit.security;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.KeyStore;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * ES256 signing keys identified by key id. Every EC entry of the configured PKCS12 keystore is
+ * published for verification and the entry named by the active key id signs new tokens, so a key
+ * can be introduced, promoted and retired across deployments without invalidating live tokens.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class JwtKeyStore {
+
+    private static final String CURVE = "secp256r1";
+    private static final int COORDINATE_BYTES = 32;
+
+    private final ResourceLoader resourceLoader;
+
+    @Value("${application.security.jwt.keystore.path:}")
+    private String keystorePath;
+
+    @Value("${application.security.jwt.keystore.password:}")
+    private String keystorePassword;
+
+    @Value("${application.security.jwt.keystore.active-key-id:}")
+    private String activeKeyId;
+
+    @Value("${application.security.jwt.keystore.allow-ephemeral:false}")
+    private boolean allowEphemeral;
+
+    @Value("${application.security.jwt.secret-key:}")
+    private String legacySecretKey;
+
+    private final Map<String, ECPublicKey> verificationKeys = new LinkedHashMap<>();
+    private PrivateKey signingKey;
+    private String signingKeyId;
+    private Key legacyKey;
+    private byte[] jwks;
+    private String jwksEtag;
+
+    @PostConstruct
+    void init() throws GeneralSecurityException, IOException {
+        if (keystorePath.isBlank()) {
+            // Each instance would sign with its own key, so tokens would fail on every other instance
+            if (!allowEphemeral) {
+                throw new IllegalStateException("No JWT keystore configured: set JWT_KEYSTORE_PATH, or run with "
+                        + "the dev profile to sign with an ephemeral key");
+            }
+            generateEphemeralKey();
+        } else {
+            loadKeystore();
+        }
+        if (!legacySecretKey.isBlank()) {
+            legacyKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(legacySecretKey));
+            log.info("Legacy HS256 tokens will still be accepted for verification");
+        }
+        jwks = buildJwks();
+        jwksEtag = "\"" + Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(MessageDigest.getInstance("SHA-256").digest(jwks)) + "\"";
+        log.info("JWT signing key id: {}, published verification keys: {}", signingKeyId, verificationKeys.keySet());
+    }
+
+    public PrivateKey getSigningKey() {
+        return signingKey;
+    }
+
+    public String getSigningKeyId() {
+        return signingKeyId;
+    }
+
+    public ECPublicKey getVerificationKey(String keyId) {
+        return keyId == null ? null : verificationKeys.get(keyId);
+    }
+
+    public Key getLegacyKey() {
+        return legacyKey;
+    }
+
+    public byte[] getJwks() {
+        return jwks;
+    }
+
+    public String getJwksEtag() {
+        return jwksEtag;
+    }
+
+    private void loadKeystore() throws GeneralSecurityException, IOException {
+        log.info("Loading JWT signing keys from keystore: {}", keystorePath);
+        char[] password = keystorePassword.toCharArray();
+        KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        Resource resource = resourceLoader.getResource(keystorePath);
+        try (InputStream in = resource.getInputStream()) {
+            keyStore.load(in, password);
+        }
+
+        for (String alias : Collections.list(keyStore.aliases())) {
+            if (!keyStore.isKeyEntry(alias) || keyStore.getCertificate(alias) == null) {
+                continue;
+            }
+            if (!(keyStore.getCertificate(alias).getPublicKey() instanceof ECPublicKey publicKey)) {
+                log.warn("Skipping non-EC keystore entry: {}", alias);
+                continue;
+            }
+            verificationKeys.put(alias, publicKey);
+            if (alias.equals(activeKeyId)) {
+                signingKey = (PrivateKey) keyStore.getKey(alias, password);
+                signingKeyId = alias;
+            }
+        }
+
+        if (signingKey == null) {
+            throw new IllegalStateException("Active JWT key id not found in keystore: " + activeKeyId);
+        }
+    }
+
+    private void generateEphemeralKey() throws GeneralSecurityException {
+        log.warn("No JWT keystore configured - generating an ephemeral signing key; "
+                + "tokens will not survive a restart or verify on other instances");
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec(CURVE));
+        KeyPair keyPair = generator.generateKeyPair();
+        signingKey = keyPair.getPrivate();
+        signingKeyId = "ephemeral-" + UUID.randomUUID();
+        verificationKeys.put(signingKeyId, (ECPublicKey) keyPair.getPublic());
+    }
+
+    private byte[] buildJwks() throws JsonProcessingException {
+        List<Map<String, String>> keys = new ArrayList<>();
+        verificationKeys.forEach((keyId, publicKey) -> {
+            Map<String, String> jwk = new LinkedHashMap<>();
+            jwk.put("kty", "EC");
+            jwk.put("crv", "P-256");
+            jwk.put("use", "sig");
+            jwk.put("alg", "ES256");
+            jwk.put("kid", keyId);
+            jwk.put("x", encodeCoordinate(publicKey.getW().getAffineX()));
+            jwk.put("y", encodeCoordinate(publicKey.getW().getAffineY()));
+            keys.add(jwk);
+        });
+        String json = new ObjectMapper().writeValueAsString(Map.of("keys", keys));
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+
+    // JWK coordinates are fixed-width, unsigned big-endian values
+    private static String encodeCoordinate(BigInteger value) {
+        byte[] raw = value.toByteArray();
+        byte[] padded = new byte[COORDINATE_BYTES];
+        int length = Math.min(raw.length, COORDINATE_BYTES);
+        System.arraycopy(raw, raw.length - length, padded, COORDINATE_BYTES - length, length);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(padded);
+    }
+}
@@ -1,10 +1,17 @@
 package com.url.springstarterkit.security;
 
+import com.url.springstarterkit.jfr.JwtVerificationEvent;
+import com.url.springstarterkit.jfr.SubjectHash;
+import com.url.springstarterkit.jfr.TokenIssueEvent;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -14,21 +21,47 @@ import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.Function;
 
 @Slf4j
 @Service
+@RequiredArgsConstructor
 public class JwtService {
 
-    @Value("${application.security.jwt.secret-key}")
-    private String secretKey;
+    // Seconds since epoch of the password login a token descends from; carried over on renewal
+    public static final String AUTH_TIME_CLAIM = "auth_time";
+    // Identifies the login a token descends from, so logout can revoke every renewal of it
+    public static final String SESSION_ID_CLAIM = "sid";
+
+    private final JwtKeyStore jwtKeyStore;
 
     @Value("${application.security.jwt.expiration}")
     private long jwtExpiration;
 
+    // Issued lifetimes are shortened by up to this fraction so tokens issued together do not expire together
+    @Value("${application.security.jwt.expiration-jitter}")
+    private double expirationJitter;
+
     // For testing purposes
     private Long currentTime;
 
+    // The parser is built once and is thread-safe; keys are resolved per token from its header
+    private JwtParser jwtParser;
+
+    @PostConstruct
+    void init() {
+        jwtParser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        return resolveVerificationKey(header);
+                    }
+                })
+                .build();
+    }
+
     public String extractUsername(String token) {
         log.debug("Extracting username from JWT token");
         return extractClaim(token, Claims::getSubject);
@@ -42,12 +75,54 @@ public class JwtService {
 
     public String generateToken(UserDetails userDetails) {
         log.info("Generating JWT token for user: {}", userDetails.getUsername());
-        return generateToken(new HashMap<>(), userDetails);
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(AUTH_TIME_CLAIM, getCurrentTimeMillis() / 1000);
+        claims.put(SESSION_ID_CLAIM, UUID.randomUUID().toString());
+        return generateToken(claims, userDetails);
     }
 
     public String generateToken(Map<String, Object> extraClaims, UserDetails userDetails) {
         log.info("Generating JWT token with extra claims for user: {}", userDetails.getUsername());
-        return buildToken(extraClaims, userDetails, jwtExpiration);
+        return buildToken(extraClaims, userDetails, jitteredExpiration());
+    }
+
+    /**
+     * Issues a fresh token for the subject of a verified token, keeping the original login time and session.
+     */
+    public String renewToken(Claims claims, UserDetails userDetails) {
+        log.debug("Renewing JWT token for user: {}", userDetails.getUsername());
+        Map<String, Object> renewedClaims = new HashMap<>();
+        renewedClaims.put(AUTH_TIME_CLAIM, extractAuthTime(claims).getTime() / 1000);
+        String sessionId = extractSessionId(claims);
+        if (sessionId != null) {
+            renewedClaims.put(SESSION_ID_CLAIM, sessionId);
+        }
+        return buildToken(renewedClaims, userDetails, jitteredExpiration());
+    }
+
+    // Null for tokens issued before sessions were tracked
+    public String extractSessionId(Claims claims) {
+        return claims.get(SESSION_ID_CLAIM, String.class);
+    }
+
+    public long getJwtExpiration() {
+        return jwtExpiration;
+    }
+
+    // The lifetime of a token that drew the largest jitter
+    public long getShortestExpiration() {
+        return jwtExpiration - (long) (jwtExpiration * expirationJitter);
+    }
+
+    public Date extractAuthTime(Claims claims) {
+        Number authTime = claims.get(AUTH_TIME_CLAIM, Number.class);
+        // Tokens issued before the claim existed count from their own issue time
+        return authTime != null ? new Date(authTime.longValue() * 1000) : claims.getIssuedAt();
+    }
+
+    private long jitteredExpiration() {
+        long maxJitter = (long) (jwtExpiration * expirationJitter);
+        return maxJitter > 0 ? jwtExpiration - ThreadLocalRandom.current().nextLong(maxJitter + 1) : jwtExpiration;
     }
 
     private String buildToken(
@@ -56,54 +131,81 @@ public class JwtService {
             long expiration
     ) {
         log.debug("Building JWT token with expiration: {} ms", expiration);
+        TokenIssueEvent event = new TokenIssueEvent();
+        event.begin();
         long now = getCurrentTimeMillis();
-        return Jwts
+        String token = Jwts
                 .builder()
                 .setClaims(extraClaims)
                 .setSubject(userDetails.getUsername())
                 .setIssuedAt(new Date(now))
                 .setExpiration(new Date(now + expiration))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .setHeaderParam(JwsHeader.KEY_ID, jwtKeyStore.getSigningKeyId())
+                .signWith(jwtKeyStore.getSigningKey(), SignatureAlgorithm.ES256)
                 .compact();
+        event.end();
+        if (event.shouldCommit()) {
+            event.subjectHash = SubjectHash.of(userDetails.getUsername());
+            event.expiration = expiration;
+            event.commit();
+        }
+        return token;
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
         log.debug("Validating JWT token for user: {}", userDetails.getUsername());
-        final String username = extractUsername(token);
-        boolean isValid = (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+        return isTokenValid(extractAllClaims(token), userDetails);
+    }
+
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        boolean isValid = claims.getSubject().equals(userDetails.getUsername())
+                && !claims.getExpiration().before(new Date(getCurrentTimeMillis()));
         if (!isValid) {
             log.warn("Token validation failed for user: {}", userDetails.getUsername());
         }
         return isValid;
     }
 
-    private boolean isTokenExpired(String token) {
-        log.debug("Checking if JWT token is expired");
-        return extractExpiration(token).before(new Date(getCurrentTimeMillis()));
-    }
-
     public Date extractExpiration(String token) {
         log.debug("Extracting expiration date from JWT token");
         return extractClaim(token, Claims::getExpiration);
     }
 
-    private Claims extractAllClaims(String token) {
+    public Claims extractAllClaims(String token) {
         log.debug("Extracting all claims from JWT token");
-        return Jwts
-                .parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        JwtVerificationEvent event = new JwtVerificationEvent();
+        event.begin();
+        try {
+            Claims claims = jwtParser
+                    .parseClaimsJws(token)
+                    .getBody();
+            event.valid = true;
+            if (claims.getIssuedAt() != null) {
+                event.tokenAge = getCurrentTimeMillis() - claims.getIssuedAt().getTime();
+            }
+            return claims;
+        } finally {
+            event.commit();
+        }
     }
 
-    private Key getSignInKey() {
-        log.debug("Getting signing key for JWT");
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private Key resolveVerificationKey(JwsHeader<?> header) {
+        String algorithm = header.getAlgorithm();
+        if (SignatureAlgorithm.ES256.getValue().equals(algorithm)) {
+            Key key = jwtKeyStore.getVerificationKey(header.getKeyId());
+            if (key == null) {
+                throw new JwtException("Unknown JWT key id: " + header.getKeyId());
+            }
+            return key;
+        }
+        // Tokens issued before the switch to ES256 stay valid until they expire
+        if (SignatureAlgorithm.HS256.getValue().equals(algorithm) && jwtKeyStore.getLegacyKey() != null) {
+            return jwtKeyStore.getLegacyKey();
+        }
+        throw new JwtException("Unsupported JWT signing algorithm: " + algorithm);
     }
 
-    private long getCurrentTimeMillis() {
+    long getCurrentTimeMillis() {
         return currentTime != null ? currentTime : System.currentTimeMillis();
     }
 } 
\ No newline at end of file
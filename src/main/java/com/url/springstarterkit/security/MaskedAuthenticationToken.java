@@ -0,0 +1,24 @@
+package com.url.springstarterkit.security;
+
+import lombok.Getter;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+
+/**
+ * Authenticated token that carries its authorities as a bitmask of {@code Role.RoleName} bits,
+ * taken from a {@link MaskedPrincipal} or otherwise computed once when the request is authenticated.
+ */
+@Getter
+public class MaskedAuthenticationToken extends UsernamePasswordAuthenticationToken {
+
+    private final long authorityMask;
+
+    public MaskedAuthenticationToken(Object principal, Collection<? extends GrantedAuthority> authorities) {
+        super(principal, null, authorities);
+        this.authorityMask = principal instanceof MaskedPrincipal masked
+                ? masked.getAuthorityMask()
+                : AuthorityMasks.of(authorities);
+    }
+}
@@ -0,0 +1,9 @@
+package com.url.springstarterkit.security;
+
+/**
+ * A principal that knows its authorities as a bitmask of {@code Role.RoleName} bits, so the mask
+ * does not have to be derived from its {@code GrantedAuthority} strings.
+ */
+public interface MaskedPrincipal {
+    long getAuthorityMask();
+}
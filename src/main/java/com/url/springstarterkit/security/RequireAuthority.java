@@ -0,0 +1,20 @@
+package com.url.springstarterkit.security;
+
+import com.url.springstarterkit.model.Role;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Restricts a controller or handler method to principals holding at least one of the given roles,
+ * equivalent to {@code @PreAuthorize("hasAnyAuthority(...)")} but checked with a single bitmask AND.
+ */
+@Documented
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RequireAuthority {
+    Role.RoleName[] value();
+}
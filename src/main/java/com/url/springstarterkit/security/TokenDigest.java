@@ -0,0 +1,47 @@
+package com.url.springstarterkit.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/**
+ * SHA-256 digest of a bearer token, base64url-encoded. Revocations are stored, logged and
+ * snapshotted as digests, so a copy of the database, log or snapshot yields no usable tokens.
+ */
+public final class TokenDigest {
+
+    private static final int ENCODED_LENGTH = 43;
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(TokenDigest::newDigest);
+
+    private TokenDigest() {
+    }
+
+    public static String of(String token) {
+        return encode(SHA_256.get().digest(token.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Returns the digest for a stored value, which holds the raw token if it was revoked before
+     * digests were stored. A JWT always contains dots, a digest never does.
+     */
+    public static String normalize(String stored) {
+        return stored.length() == ENCODED_LENGTH && stored.indexOf('.') < 0 ? stored : of(stored);
+    }
+
+    public static byte[] decode(String digest) {
+        return Base64.getUrlDecoder().decode(digest);
+    }
+
+    public static String encode(byte[] digest) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.url.springstarterkit.security;
+
+import io.jsonwebtoken.Claims;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Adds the renewed token requested by {@link JwtAuthenticationFilter} once the response is known to
+ * succeed. The filter runs before authorization, so a request later refused with 403, or failing in
+ * the handler, must not hand out a fresh token or use up its session's renewal.
+ */
+@ControllerAdvice
+@RequiredArgsConstructor
+public class TokenRenewalResponseAdvice implements ResponseBodyAdvice<Object> {
+
+    private static final String PENDING_RENEWAL_ATTRIBUTE = TokenRenewalResponseAdvice.class.getName() + ".pending";
+
+    private final TokenRenewalService tokenRenewalService;
+
+    static void requestRenewal(HttpServletRequest request, Claims claims, UserDetails userDetails) {
+        request.setAttribute(PENDING_RENEWAL_ATTRIBUTE, new PendingRenewal(claims, userDetails));
+    }
+
+    @Override
+    public boolean supports(@NonNull MethodParameter returnType,
+                            @NonNull Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body,
+                                  @NonNull MethodParameter returnType,
+                                  @NonNull MediaType selectedContentType,
+                                  @NonNull Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  @NonNull ServerHttpRequest request,
+                                  @NonNull ServerHttpResponse response) {
+        if (!(request instanceof ServletServerHttpRequest servletRequest)
+                || !(response instanceof ServletServerHttpResponse servletResponse)) {
+            return body;
+        }
+        HttpServletRequest httpRequest = servletRequest.getServletRequest();
+        if (!(httpRequest.getAttribute(PENDING_RENEWAL_ATTRIBUTE) instanceof PendingRenewal renewal)) {
+            return body;
+        }
+        httpRequest.removeAttribute(PENDING_RENEWAL_ATTRIBUTE);
+        // Handlers and exception handlers have set the status by the time the body is written
+        if (!HttpStatus.valueOf(servletResponse.getServletResponse().getStatus()).is2xxSuccessful()) {
+            return body;
+        }
+        String renewedToken = tokenRenewalService.renewIfDue(renewal.claims(), renewal.userDetails());
+        if (renewedToken != null) {
+            response.getHeaders().set(JwtAuthenticationFilter.RENEWED_TOKEN_HEADER, renewedToken);
+        }
+        return body;
+    }
+
+    private record PendingRenewal(Claims claims, UserDetails userDetails) {
+    }
+}
@@ -0,0 +1,120 @@
+package com.url.springstarterkit.security;
+
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sliding sessions: a valid token presented within the renewal window before its expiry is
+ * exchanged for a new one, so active users keep working without logging in again until their
+ * session reaches its maximum age. Renewed tokens keep the session id of the login, and renewals
+ * are limited to one per session per interval, which also keeps concurrent requests carrying the
+ * same token from each minting a replacement.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TokenRenewalService {
+
+    private final JwtService jwtService;
+    private final MeterRegistry meterRegistry;
+
+    // Last renewal per session, pruned once it no longer limits anything
+    private final Map<String, Long> lastRenewals = new ConcurrentHashMap<>();
+    private Counter renewedCounter;
+    private Counter rateLimitedCounter;
+
+    @Value("${application.security.jwt.renewal.enabled}")
+    private boolean enabled;
+
+    @Value("${application.security.jwt.renewal.window-ms}")
+    private long renewalWindow;
+
+    @Value("${application.security.jwt.renewal.min-interval-ms}")
+    private long minInterval;
+
+    @Value("${application.security.jwt.renewal.max-session-age-ms}")
+    private long maxSessionAge;
+
+    @PostConstruct
+    void init() {
+        // A window as long as the token's lifetime would renew every token on its first use
+        if (enabled && renewalWindow >= jwtService.getShortestExpiration()) {
+            throw new IllegalStateException(String.format(
+                    "application.security.jwt.renewal.window-ms (%d) must be shorter than the shortest token lifetime (%d ms)",
+                    renewalWindow, jwtService.getShortestExpiration()));
+        }
+        renewedCounter = Counter.builder("jwt.renewals").tag("outcome", "renewed").register(meterRegistry);
+        rateLimitedCounter = Counter.builder("jwt.renewals").tag("outcome", "rate_limited").register(meterRegistry);
+    }
+
+    /**
+     * Returns a renewed token for the verified claims, or null when no renewal is due or allowed.
+     */
+    public String renewIfDue(Claims claims, UserDetails userDetails) {
+        if (!enabled) {
+            return null;
+        }
+        long now = jwtService.getCurrentTimeMillis();
+        if (claims.getExpiration().getTime() - now > renewalWindow) {
+            return null;
+        }
+        if (now - jwtService.extractAuthTime(claims).getTime() >= maxSessionAge) {
+            log.debug("Session of user {} reached its maximum age, not renewing", userDetails.getUsername());
+            return null;
+        }
+
+        // Tokens from before session ids were issued are limited per subject instead
+        String sessionId = jwtService.extractSessionId(claims);
+        String key = sessionId != null ? sessionId : userDetails.getUsername();
+        boolean[] acquired = new boolean[1];
+        lastRenewals.compute(key, (session, last) -> {
+            if (last != null && now - last < minInterval) {
+                return last;
+            }
+            acquired[0] = true;
+            return now;
+        });
+        if (!acquired[0]) {
+            rateLimitedCounter.increment();
+            return null;
+        }
+
+        String token = jwtService.renewToken(claims, userDetails);
+        renewedCounter.increment();
+        log.info("Renewed JWT token for user: {}", userDetails.getUsername());
+        return token;
+    }
+
+    /**
+     * The latest expiry any token renewed from this token's session can have, which is how long a
+     * revocation of the whole session has to be kept.
+     */
+    public Instant latestSessionExpiry(Claims claims) {
+        Instant tokenExpiry = claims.getExpiration().toInstant();
+        if (!enabled) {
+            return tokenExpiry;
+        }
+        // The last renewal happens just before the maximum age and runs for a full lifetime
+        Instant lastRenewalExpiry = jwtService.extractAuthTime(claims).toInstant()
+                .plusMillis(maxSessionAge + jwtService.getJwtExpiration());
+        return lastRenewalExpiry.isAfter(tokenExpiry) ? lastRenewalExpiry : tokenExpiry;
+    }
+
+    @Scheduled(fixedDelayString = "${application.security.jwt.renewal.min-interval-ms}")
+    public void pruneRenewals() {
+        long cutoff = jwtService.getCurrentTimeMillis() - minInterval;
+        lastRenewals.values().removeIf(last -> last <= cutoff);
+    }
+}
@@ -0,0 +1,190 @@
+package com.url.springstarterkit.service;
+
+import com.url.springstarterkit.model.AuthEvent;
+import com.url.springstarterkit.sharding.ShardRouter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records login, failed login and logout events off the request path. Events are offered to a bounded
+ * queue and written by a single background thread in JDBC batches; {@code lastLoginAt} updates are
+ * coalesced per user within each flush. A batch whose insert fails twice is dropped and counted, like
+ * events turned away by a full queue.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AuthAuditService {
+
+    private static final String INSERT_EVENT = "INSERT INTO auth_events (type, email, occurred_at) VALUES (?, ?, ?)";
+    private static final String UPDATE_LAST_LOGIN =
+            "UPDATE users SET last_login_at = ? WHERE email = ? AND (last_login_at IS NULL OR last_login_at < ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+    private final ShardRouter shardRouter;
+
+    @Value("${application.audit.queue-capacity}")
+    private int queueCapacity;
+
+    @Value("${application.audit.batch-size}")
+    private int batchSize;
+
+    @Value("${application.audit.flush-interval-ms}")
+    private long flushIntervalMs;
+
+    @Value("${application.audit.overflow-policy}")
+    private OverflowPolicy overflowPolicy;
+
+    private BlockingQueue<AuthEvent> queue;
+    private ScheduledExecutorService writer;
+    private Counter droppedEvents;
+    private Counter failedEvents;
+    private Counter writtenEvents;
+    private Timer flushTimer;
+
+    @PostConstruct
+    void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        Gauge.builder("auth.audit.queue.depth", queue, BlockingQueue::size).register(meterRegistry);
+        droppedEvents = meterRegistry.counter("auth.audit.events.dropped", "reason", "queue_full");
+        failedEvents = meterRegistry.counter("auth.audit.events.dropped", "reason", "write_failed");
+        writtenEvents = meterRegistry.counter("auth.audit.events.written");
+        flushTimer = meterRegistry.timer("auth.audit.flush");
+
+        writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "auth-audit-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        writer.scheduleWithFixedDelay(this::flushSafely, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        log.info("Auth audit writer started (capacity: {}, batch size: {}, flush interval: {} ms, overflow: {})",
+                queueCapacity, batchSize, flushIntervalMs, overflowPolicy);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        writer.shutdown();
+        writer.awaitTermination(5, TimeUnit.SECONDS);
+        flushSafely();
+    }
+
+    public void recordLoginSuccess(String email) {
+        record(AuthEvent.Type.LOGIN_SUCCESS, email);
+    }
+
+    public void recordLoginFailure(String email) {
+        record(AuthEvent.Type.LOGIN_FAILURE, email);
+    }
+
+    public void recordLogout(String email) {
+        record(AuthEvent.Type.LOGOUT, email);
+    }
+
+    private void record(AuthEvent.Type type, String email) {
+        AuthEvent event = new AuthEvent(type, email, Instant.now());
+        if (queue.offer(event)) {
+            return;
+        }
+        // Never block the caller: make room or give up, depending on the configured policy
+        if (overflowPolicy == OverflowPolicy.DROP_OLDEST && queue.poll() != null) {
+            droppedEvents.increment();
+            if (queue.offer(event)) {
+                return;
+            }
+        }
+        droppedEvents.increment();
+        log.warn("Auth audit queue full, dropped {} event for {}", type, email);
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("Error flushing auth audit events: {}", e.getMessage(), e);
+        }
+    }
+
+    private void flush() {
+        if (queue.isEmpty()) {
+            return;
+        }
+        flushTimer.record(() -> {
+            Map<String, Instant> lastLogins = new HashMap<>();
+            List<AuthEvent> batch = new ArrayList<>(batchSize);
+            // Only drain what was queued when the flush started so a busy queue cannot pin the writer
+            int remaining = queue.size();
+            while (remaining > 0 && queue.drainTo(batch, Math.min(batchSize, remaining)) > 0) {
+                remaining -= batch.size();
+                insertBatch(batch);
+                for (AuthEvent event : batch) {
+                    if (event.getType() == AuthEvent.Type.LOGIN_SUCCESS) {
+                        lastLogins.merge(event.getEmail(), event.getOccurredAt(),
+                                (current, candidate) -> candidate.isAfter(current) ? candidate : current);
+                    }
+                }
+                batch.clear();
+            }
+
+            if (!lastLogins.isEmpty()) {
+                shardRouter.groupByShard(lastLogins.keySet(), shardRouter::shardForEmail).forEach((shard, emails) -> {
+                    List<Object[]> updates = new ArrayList<>(emails.size());
+                    for (String email : emails) {
+                        Timestamp timestamp = Timestamp.from(lastLogins.get(email));
+                        updates.add(new Object[]{timestamp, email, timestamp});
+                    }
+                    shardRouter.runOnShard(shard, () -> jdbcTemplate.batchUpdate(UPDATE_LAST_LOGIN, updates));
+                });
+            }
+            log.debug("Flushed auth audit events, updated last login for {} users", lastLogins.size());
+        });
+    }
+
+    // The events have already left the queue, so a failed batch is retried once and then counted as dropped
+    private void insertBatch(List<AuthEvent> batch) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                jdbcTemplate.batchUpdate(INSERT_EVENT, batch, batch.size(), (ps, event) -> {
+                    ps.setString(1, event.getType().name());
+                    ps.setString(2, event.getEmail());
+                    ps.setTimestamp(3, Timestamp.from(event.getOccurredAt()));
+                });
+                writtenEvents.increment(batch.size());
+                return;
+            } catch (Exception e) {
+                if (attempt >= 2) {
+                    failedEvents.increment(batch.size());
+                    log.error("Dropped {} auth audit events after a failed retry: {}", batch.size(), e.getMessage(), e);
+                    return;
+                }
+                log.warn("Error writing {} auth audit events, retrying: {}", batch.size(), e.getMessage());
+            }
+        }
+    }
+
+    public enum OverflowPolicy {
+        DROP_NEWEST,
+        DROP_OLDEST
+    }
+}
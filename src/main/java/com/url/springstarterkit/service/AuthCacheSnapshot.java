@@ -0,0 +1,163 @@
+package com.url.springstarterkit.service;
+
+import com.url.springstarterkit.security.TokenDigest;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Versioned binary snapshot of the in-process auth caches, used to warm a restarted instance.
+ * Layout: magic, version, creation time, tagged sections, end marker and a CRC32 of everything
+ * before it. The file is replaced atomically on write and memory-mapped on read; a missing,
+ * truncated, corrupt or foreign-version file is reported as absent.
+ */
+@Slf4j
+@Getter
+@RequiredArgsConstructor
+public class AuthCacheSnapshot {
+
+    private static final int MAGIC = 0x534B4143;
+    private static final int VERSION = 2;
+    private static final byte SECTION_END = 0;
+    private static final byte SECTION_EMAIL_FILTER = 1;
+    private static final byte SECTION_REVOCATIONS = 2;
+    private static final int HEADER_BYTES = 16;
+    private static final int CHECKSUM_BYTES = 8;
+    private static final int DIGEST_BYTES = 32;
+
+    private final Instant createdAt;
+    private final EmailFilterState emailFilter;
+    private final RevocationSetState revocations;
+
+    public static AuthCacheSnapshot read(Path path) {
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES + 1 + CHECKSUM_BYTES || size > Integer.MAX_VALUE) {
+                log.warn("Ignoring auth cache snapshot with unexpected size: {} bytes", size);
+                return null;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(0, (int) size - CHECKSUM_BYTES));
+            if (crc.getValue() != buffer.getLong((int) size - CHECKSUM_BYTES)) {
+                log.warn("Ignoring auth cache snapshot with bad checksum");
+                return null;
+            }
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                log.warn("Ignoring auth cache snapshot with unknown format or version");
+                return null;
+            }
+            Instant createdAt = Instant.ofEpochMilli(buffer.getLong());
+
+            EmailFilterState emailFilter = null;
+            RevocationSetState revocations = null;
+            byte section;
+            while ((section = buffer.get()) != SECTION_END) {
+                switch (section) {
+                    case SECTION_EMAIL_FILTER -> emailFilter = readEmailFilter(buffer);
+                    case SECTION_REVOCATIONS -> revocations = readRevocations(buffer);
+                    default -> {
+                        log.warn("Ignoring auth cache snapshot with unknown section: {}", section);
+                        return null;
+                    }
+                }
+            }
+            return new AuthCacheSnapshot(createdAt, emailFilter, revocations);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ignoring unreadable auth cache snapshot {}: {}", path, e.getMessage());
+            return null;
+        }
+    }
+
+    public void write(Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        CRC32 crc = new CRC32();
+        try (OutputStream file = Files.newOutputStream(temp);
+             DataOutputStream out = new DataOutputStream(new CheckedOutputStream(new BufferedOutputStream(file, 1 << 16), crc))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(createdAt.toEpochMilli());
+            if (emailFilter != null) {
+                out.writeByte(SECTION_EMAIL_FILTER);
+                out.writeLong(emailFilter.watermark().toEpochMilli());
+                out.writeInt(emailFilter.hashCount());
+                out.writeInt(emailFilter.words().length);
+                for (long word : emailFilter.words()) {
+                    out.writeLong(word);
+                }
+            }
+            if (revocations != null) {
+                out.writeByte(SECTION_REVOCATIONS);
+                out.writeLong(revocations.watermark().toEpochMilli());
+                out.writeInt(revocations.entries().size());
+                for (RevocationWriteAheadLog.Entry entry : revocations.entries()) {
+                    out.writeLong(entry.expiry().toEpochMilli());
+                    out.write(TokenDigest.decode(entry.tokenDigest()));
+                }
+            }
+            out.writeByte(SECTION_END);
+            out.flush();
+            // The checksum itself is not part of the checked stream
+            new DataOutputStream(file).writeLong(crc.getValue());
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static EmailFilterState readEmailFilter(ByteBuffer buffer) {
+        Instant watermark = Instant.ofEpochMilli(buffer.getLong());
+        int hashCount = buffer.getInt();
+        long[] words = new long[buffer.getInt()];
+        buffer.asLongBuffer().get(words);
+        buffer.position(buffer.position() + words.length * Long.BYTES);
+        return new EmailFilterState(watermark, hashCount, words);
+    }
+
+    private static RevocationSetState readRevocations(ByteBuffer buffer) {
+        Instant watermark = Instant.ofEpochMilli(buffer.getLong());
+        int count = buffer.getInt();
+        List<RevocationWriteAheadLog.Entry> entries = new ArrayList<>(count);
+        byte[] digest = new byte[DIGEST_BYTES];
+        for (int i = 0; i < count; i++) {
+            Instant expiry = Instant.ofEpochMilli(buffer.getLong());
+            buffer.get(digest);
+            entries.add(new RevocationWriteAheadLog.Entry(TokenDigest.encode(digest), expiry));
+        }
+        return new RevocationSetState(watermark, entries);
+    }
+
+    /**
+     * Bloom filter bits of registered emails, complete for users created before {@code watermark}.
+     */
+    public record EmailFilterState(Instant watermark, int hashCount, long[] words) {
+    }
+
+    /**
+     * Digests of unexpired revocations, complete for rows created (by the database clock) before {@code watermark}.
+     */
+    public record RevocationSetState(Instant watermark, List<RevocationWriteAheadLog.Entry> entries) {
+    }
+}
@@ -0,0 +1,83 @@
+package com.url.springstarterkit.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Path;
+import java.time.Instant;
+
+/**
+ * Warms the in-process auth caches from the local snapshot on startup and writes it back
+ * periodically and on shutdown. The snapshot only shortens warm-up: both caches record a
+ * watermark and catch up from the database, and an instance without one loads them in full.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AuthCacheSnapshotService {
+
+    private final RegisteredEmailFilter registeredEmailFilter;
+    private final TokenBlacklistService tokenBlacklistService;
+
+    @Value("${application.snapshot.enabled}")
+    private boolean enabled;
+
+    @Value("${application.snapshot.path}")
+    private String snapshotPath;
+
+    // Nothing is written until warm-up has finished, so a partial state never replaces a good snapshot
+    private volatile boolean warmedUp;
+
+    // Warmed off the startup path; requests in the meantime fall back to the database
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpInBackground() {
+        Thread loader = new Thread(this::warmUp, "auth-cache-warmup");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    @Scheduled(fixedDelayString = "${application.snapshot.interval-ms}", initialDelayString = "${application.snapshot.interval-ms}")
+    public void writeSnapshot() {
+        if (!enabled || !warmedUp) {
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            AuthCacheSnapshot snapshot = new AuthCacheSnapshot(
+                    Instant.now(),
+                    registeredEmailFilter.snapshotState(),
+                    tokenBlacklistService.revocationSetState());
+            snapshot.write(Path.of(snapshotPath));
+            log.info("Auth cache snapshot written to {} in {} ms", snapshotPath, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("Error writing auth cache snapshot: {}", e.getMessage(), e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        writeSnapshot();
+    }
+
+    private void warmUp() {
+        AuthCacheSnapshot snapshot = null;
+        if (enabled) {
+            long start = System.currentTimeMillis();
+            snapshot = AuthCacheSnapshot.read(Path.of(snapshotPath));
+            if (snapshot != null) {
+                log.info("Auth cache snapshot from {} mapped in {} ms", snapshot.getCreatedAt(), System.currentTimeMillis() - start);
+            } else {
+                log.info("No usable auth cache snapshot at {}, loading from the database", snapshotPath);
+            }
+        }
+        tokenBlacklistService.initializeRevocations(snapshot != null ? snapshot.getRevocations() : null);
+        registeredEmailFilter.initialize(snapshot != null ? snapshot.getEmailFilter() : null);
+        warmedUp = true;
+    }
+}
@@ -10,21 +10,31 @@ import com.url.springstarterkit.exception.AuthenticationException;
 import com.url.springstarterkit.exception.DuplicateEmailException;
 import com.url.springstarterkit.exception.InvalidRequestException;
 import com.url.springstarterkit.exception.ResourceNotFoundException;
+import com.url.springstarterkit.jfr.CredentialCheckEvent;
+import com.url.springstarterkit.jfr.SubjectHash;
 import com.url.springstarterkit.model.Role;
 import com.url.springstarterkit.model.User;
 import com.url.springstarterkit.repository.RoleRepository;
 import com.url.springstarterkit.repository.UserRepository;
 import com.url.springstarterkit.security.JwtService;
+import com.url.springstarterkit.security.TokenRenewalService;
+import com.url.springstarterkit.sharding.ShardRouter;
+import io.jsonwebtoken.Claims;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.RequestBody;
 
+import java.sql.SQLException;
+import java.time.Instant;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -38,6 +48,8 @@ public class AuthenticationService {
     private static final String USER_NOT_FOUND = "User not found";
     private static final String INVALID_CREDENTIALS = "Invalid credentials";
     private static final String EMAIL_ALREADY_EXISTS = "Email %s is already registered";
+    private static final int MYSQL_DUPLICATE_ENTRY = 1062;
+    private static final String UNIQUE_VIOLATION_SQL_STATE = "23505";
 
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
@@ -45,30 +57,55 @@ public class AuthenticationService {
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
     private final TokenBlacklistService tokenBlacklistService;
+    private final TokenRenewalService tokenRenewalService;
+    private final AuthAuditService authAuditService;
+    private final UserStatisticsService userStatisticsService;
+    private final RegisteredEmailFilter registeredEmailFilter;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate transactionTemplate;
+
+    // Roles are never renamed or deleted at runtime, so the default role is looked up once
+    private volatile Role defaultRole;
 
     public AuthenticationResponse register(RegisterDTO request) {
-    
+        // Hashed before the transaction so no connection is held for the duration of BCrypt
+        String passwordHash = passwordEncoder.encode(request.getPassword());
+        // The shard is bound when the transaction takes its connection, so it is chosen first
+        return shardRouter.onShardForEmail(request.getEmail(),
+                () -> transactionTemplate.execute(status -> registerOnShard(request, passwordHash)));
+    }
+
+    private AuthenticationResponse registerOnShard(RegisterDTO request, String passwordHash) {
         log.info("Attempting to register new user with email: {}", request.getEmail());
-        if (userRepository.existsByEmail(request.getEmail())) {
+        // Only a possible match needs the existence query; the unique index catches the rest
+        if (registeredEmailFilter.mightContain(request.getEmail()) && userRepository.existsByEmail(request.getEmail())) {
             log.warn("Registration failed - Email already exists: {}", request.getEmail());
             throw new DuplicateEmailException(String.format(EMAIL_ALREADY_EXISTS, request.getEmail()));
         }
 
         Set<Role> roles = new HashSet<>();
-        roles.add(roleRepository.findByName(Role.RoleName.USER)
-                .orElseThrow(() -> {
-                    log.error("Default USER role not found in database");
-                    return new ResourceNotFoundException(DEFAULT_ROLE_NOT_FOUND);
-                }));
+        roles.add(getDefaultRole());
 
         User user = new User();
         user.setEmail(request.getEmail());
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
+        user.setPassword(passwordHash);
         user.setRoles(roles);
         
         log.info("Saving new user to database");
-        userRepository.save(user);
+        try {
+            userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            if (!isDuplicateKey(e)) {
+                throw e;
+            }
+            log.warn("Registration failed - Email registered concurrently: {}", request.getEmail());
+            throw new DuplicateEmailException(String.format(EMAIL_ALREADY_EXISTS, request.getEmail()));
+        }
+        registeredEmailFilter.add(user.getEmail());
         log.info("User successfully registered with ID: {}", user.getId());
+        userStatisticsService.recordRegistration(
+                roles.stream().map(Role::getName).toList(),
+                user.getCreatedAt() != null ? user.getCreatedAt() : Instant.now());
 
         String jwtToken = jwtService.generateToken(user);
         log.info("JWT token generated for user: {}", user.getEmail());
@@ -76,9 +113,38 @@ public class AuthenticationService {
         return new AuthenticationResponse(jwtToken);
     }
 
+    // Email is the only unique key a new user can collide on; other integrity errors are not the caller's
+    private static boolean isDuplicateKey(DataIntegrityViolationException e) {
+        if (e instanceof DuplicateKeyException) {
+            return true;
+        }
+        for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException) {
+                return sqlException.getErrorCode() == MYSQL_DUPLICATE_ENTRY
+                        || UNIQUE_VIOLATION_SQL_STATE.equals(sqlException.getSQLState());
+            }
+        }
+        return false;
+    }
+
+    private Role getDefaultRole() {
+        Role role = defaultRole;
+        if (role == null) {
+            role = roleRepository.findByName(Role.RoleName.USER)
+                    .orElseThrow(() -> {
+                        log.error("Default USER role not found in database");
+                        return new ResourceNotFoundException(DEFAULT_ROLE_NOT_FOUND);
+                    });
+            defaultRole = role;
+        }
+        return role;
+    }
+
     public AuthenticationResponse authenticate(AuthenticationDTO request) {
         log.info("Attempting to authenticate user: {}", request.getEmail());
         
+        CredentialCheckEvent credentialCheck = new CredentialCheckEvent();
+        credentialCheck.begin();
         try {
             authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(
@@ -86,13 +152,21 @@ public class AuthenticationService {
                             request.getPassword()
                     )
             );
+            credentialCheck.success = true;
             log.info("Authentication successful for user: {}", request.getEmail());
         } catch (Exception e) {
             log.error("Authentication failed for user {}: {}", request.getEmail(), e.getMessage());
+            authAuditService.recordLoginFailure(request.getEmail());
             throw new AuthenticationException(INVALID_CREDENTIALS);
+        } finally {
+            credentialCheck.end();
+            if (credentialCheck.shouldCommit()) {
+                credentialCheck.subjectHash = SubjectHash.of(request.getEmail());
+                credentialCheck.commit();
+            }
         }
 
-        User user = userRepository.findByEmail(request.getEmail())
+        User user = shardRouter.onShardForEmail(request.getEmail(), () -> userRepository.findByEmail(request.getEmail()))
                 .orElseThrow(() -> {
                     log.error("User not found after successful authentication: {}", request.getEmail());
                     return new ResourceNotFoundException(USER_NOT_FOUND);
@@ -100,6 +174,7 @@ public class AuthenticationService {
         
         String jwtToken = jwtService.generateToken(user);
         log.info("JWT token generated for authenticated user: {}", user.getEmail());
+        authAuditService.recordLoginSuccess(user.getEmail());
         
         return new AuthenticationResponse(jwtToken);
     }
@@ -113,7 +188,10 @@ public class AuthenticationService {
         }
 
         try {
-            tokenBlacklistService.blacklistToken(token);
+            // Renewed tokens share the session id, so revoking the session logs all of them out
+            Claims claims = jwtService.extractAllClaims(token);
+            tokenBlacklistService.blacklistToken(token, claims, tokenRenewalService.latestSessionExpiry(claims));
+            authAuditService.recordLogout(claims.getSubject());
             SecurityContextHolder.clearContext();
             log.info("User logged out successfully");
             return new LogoutResponse("Logout successful", true);
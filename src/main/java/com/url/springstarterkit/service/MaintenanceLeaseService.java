@@ -0,0 +1,66 @@
+package com.url.springstarterkit.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Database-backed leases that let exactly one instance run a periodic maintenance task at a time.
+ * A lease is taken when it is free or expired and renewed by its holder; a crashed holder's lease
+ * simply times out.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MaintenanceLeaseService {
+
+    private static final String CLAIM_LEASE =
+            "UPDATE maintenance_leases SET owner = ?, lease_until = ? WHERE name = ? AND (owner = ? OR lease_until < ?)";
+    private static final String INSERT_LEASE = "INSERT INTO maintenance_leases (name, owner, lease_until) VALUES (?, ?, ?)";
+    private static final String RELEASE_LEASE = "UPDATE maintenance_leases SET lease_until = ? WHERE name = ? AND owner = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final String instanceId = resolveInstanceId();
+
+    public boolean tryAcquire(String name, Duration duration) {
+        Instant now = Instant.now();
+        Timestamp leaseUntil = Timestamp.from(now.plus(duration));
+        int claimed = jdbcTemplate.update(CLAIM_LEASE, instanceId, leaseUntil, name, instanceId, Timestamp.from(now));
+        if (claimed == 1) {
+            log.debug("Acquired maintenance lease {} as {}", name, instanceId);
+            return true;
+        }
+        try {
+            jdbcTemplate.update(INSERT_LEASE, name, instanceId, leaseUntil);
+            log.debug("Created maintenance lease {} as {}", name, instanceId);
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Maintenance lease {} is held by another instance", name);
+            return false;
+        }
+    }
+
+    public void release(String name) {
+        jdbcTemplate.update(RELEASE_LEASE, Timestamp.from(Instant.now()), name, instanceId);
+    }
+
+    private static String resolveInstanceId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "unknown";
+        }
+        return host + "-" + UUID.randomUUID();
+    }
+}
@@ -0,0 +1,120 @@
+package com.url.springstarterkit.service;
+
+import com.url.springstarterkit.sharding.ShardRouter;
+import com.url.springstarterkit.util.BloomFilter;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Locale;
+
+/**
+ * In-memory Bloom filter of registered emails. A negative answer means the email is definitely not
+ * registered, so registration can skip the existence query; until the filter has been loaded from
+ * {@code users}, or restored from a snapshot and reconciled, every email is reported as possibly present.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RegisteredEmailFilter {
+
+    private static final String SELECT_EMAILS = "SELECT email FROM users";
+    private static final String SELECT_EMAILS_SINCE = "SELECT email FROM users WHERE created_at >= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ShardRouter shardRouter;
+
+    @Value("${application.users.email-filter.expected-users}")
+    private long expectedUsers;
+
+    @Value("${application.users.email-filter.false-positive-rate}")
+    private double falsePositiveRate;
+
+    @Value("${application.users.email-filter.reconcile-slack-seconds}")
+    private long reconcileSlackSeconds;
+
+    private BloomFilter filter;
+    private volatile boolean loaded;
+    // Every user created before this instant is in the filter
+    private volatile Instant watermark;
+
+    @PostConstruct
+    void init() {
+        filter = new BloomFilter(expectedUsers, falsePositiveRate);
+    }
+
+    /**
+     * Fills the filter, starting from the snapshot when it matches the configured sizing and
+     * otherwise from a full scan of {@code users}. Called once, off the startup path.
+     */
+    public void initialize(AuthCacheSnapshot.EmailFilterState snapshot) {
+        if (snapshot != null && snapshot.hashCount() == filter.hashCount() && snapshot.words().length == filter.wordCount()) {
+            filter.merge(snapshot.words());
+            // Catches users registered after the snapshot, widened for clock skew and late commits
+            scan(SELECT_EMAILS_SINCE, snapshot.watermark().minusSeconds(reconcileSlackSeconds));
+        } else {
+            if (snapshot != null) {
+                log.info("Discarding email filter snapshot with different sizing");
+            }
+            scan(SELECT_EMAILS, null);
+        }
+    }
+
+    public AuthCacheSnapshot.EmailFilterState snapshotState() {
+        if (!loaded) {
+            return null;
+        }
+        // Read before the bits so the snapshot never claims more than it holds
+        Instant through = watermark;
+        return new AuthCacheSnapshot.EmailFilterState(through, filter.hashCount(), filter.toLongArray());
+    }
+
+    public boolean mightContain(String email) {
+        return !loaded || filter.mightContain(normalize(email));
+    }
+
+    public void add(String email) {
+        filter.put(normalize(email));
+    }
+
+    private void scan(String sql, Instant since) {
+        try {
+            long start = System.currentTimeMillis();
+            Instant scanStart = Instant.now();
+            long[] count = {0};
+            for (int shard : shardRouter.getShards()) {
+                shardRouter.runOnShard(shard, () -> jdbcTemplate.query(connection -> {
+                    PreparedStatement statement = connection.prepareStatement(sql);
+                    // Makes MySQL Connector/J stream rows instead of buffering the whole table
+                    if (connection.getMetaData().getDatabaseProductName().contains("MySQL")) {
+                        statement.setFetchSize(Integer.MIN_VALUE);
+                    }
+                    if (since != null) {
+                        statement.setTimestamp(1, Timestamp.from(since));
+                    }
+                    return statement;
+                }, rs -> {
+                    filter.put(normalize(rs.getString(1)));
+                    count[0]++;
+                }));
+            }
+            watermark = scanStart;
+            loaded = true;
+            log.info("Registered email filter loaded with {} emails{} in {} ms", count[0],
+                    since != null ? " created since " + since : "", System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("Error loading registered email filter, duplicate checks stay on the database: {}", e.getMessage(), e);
+        }
+    }
+
+    // Matches the case-insensitive unique index on users.email
+    private static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,140 @@
+package com.url.springstarterkit.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append-only local file of revocations that have not yet reached {@code blacklisted_tokens}.
+ * Each line is {@code <expiry epoch millis> <token digest>}. Appends are group-committed: a writer waiting in
+ * {@link #sync(long)} either forces the file itself, covering every line written so far, or waits for
+ * the force already in progress, so concurrent logouts share one fsync instead of queueing for their own.
+ */
+@Slf4j
+public class RevocationWriteAheadLog implements AutoCloseable {
+
+    private final Path path;
+    private final FileChannel channel;
+
+    // Guards the file contents and the sequence numbers; the force itself runs outside it
+    private final Object lock = new Object();
+    private long writtenSequence;
+    private long durableSequence;
+    private boolean forcing;
+
+    public RevocationWriteAheadLog(Path path) throws IOException {
+        this.path = path;
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        // Write-only: READ cannot be combined with APPEND, and readAll opens its own reader
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    public List<Entry> readAll() throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int separator = line.indexOf(' ');
+                // A torn final line from a crash mid-append is skipped; its logout never returned
+                if (separator <= 0 || separator == line.length() - 1) {
+                    log.warn("Skipping malformed revocation log line");
+                    continue;
+                }
+                try {
+                    Instant expiry = Instant.ofEpochMilli(Long.parseLong(line.substring(0, separator)));
+                    entries.add(new Entry(line.substring(separator + 1), expiry));
+                } catch (NumberFormatException e) {
+                    log.warn("Skipping malformed revocation log line");
+                }
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Writes the entry without forcing it and returns the sequence to pass to {@link #sync(long)}.
+     */
+    public long write(Entry entry) throws IOException {
+        synchronized (lock) {
+            writeLine(entry);
+            return ++writtenSequence;
+        }
+    }
+
+    /**
+     * Returns once the entry with the given sequence, and every one written before it, is on disk.
+     */
+    public void sync(long sequence) throws IOException {
+        long target;
+        synchronized (lock) {
+            while (durableSequence < sequence && forcing) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted waiting for the revocation log to be forced");
+                }
+            }
+            if (durableSequence >= sequence) {
+                return;
+            }
+            // Lead this round: one force covers the lines of every writer waiting behind it
+            forcing = true;
+            target = writtenSequence;
+        }
+        boolean forced = false;
+        try {
+            channel.force(false);
+            forced = true;
+        } finally {
+            synchronized (lock) {
+                forcing = false;
+                if (forced) {
+                    durableSequence = Math.max(durableSequence, target);
+                }
+                lock.notifyAll();
+            }
+        }
+    }
+
+    public void rewrite(List<Entry> entries) throws IOException {
+        synchronized (lock) {
+            channel.truncate(0);
+            for (Entry entry : entries) {
+                writeLine(entry);
+            }
+            channel.force(false);
+            durableSequence = writtenSequence;
+        }
+    }
+
+    private void writeLine(Entry entry) throws IOException {
+        String line = entry.expiry().toEpochMilli() + " " + entry.tokenDigest() + "\n";
+        ByteBuffer buffer = ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    public record Entry(String tokenDigest, Instant expiry) {
+    }
+}
@@ -1,54 +1,371 @@
 package com.url.springstarterkit.service;
 
-import com.url.springstarterkit.model.BlacklistedToken;
+import com.url.springstarterkit.jfr.BlacklistLookupEvent;
 import com.url.springstarterkit.repository.BlacklistedTokenRepository;
 import com.url.springstarterkit.security.JwtService;
+import com.url.springstarterkit.security.TokenDigest;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Duration;
 import java.time.Instant;
-import java.util.Date;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class TokenBlacklistService {
 
+    private static final String CLEANUP_LEASE = "blacklisted-token-cleanup";
+    // Session revocations share the table with tokens, stored as the digest of this prefix and the session id
+    private static final String SESSION_KEY_PREFIX = "sid:";
+    // created_at comes from the database clock, so every instance can sync against the same watermark
+    private static final String INSERT_TOKEN =
+            "INSERT IGNORE INTO blacklisted_tokens (token, expiry_date, created_at) VALUES (?, ?, CURRENT_TIMESTAMP)";
+    private static final String SELECT_UNEXPIRED =
+            "SELECT token, expiry_date, created_at FROM blacklisted_tokens WHERE expiry_date > ?";
+    private static final String SELECT_CREATED_SINCE =
+            "SELECT token, expiry_date, created_at FROM blacklisted_tokens WHERE created_at >= ? AND expiry_date > ?";
+
     private final BlacklistedTokenRepository blacklistedTokenRepository;
     private final JwtService jwtService;
+    private final MaintenanceLeaseService maintenanceLeaseService;
+    private final MeterRegistry meterRegistry;
+    private final JdbcTemplate jdbcTemplate;
 
-    @Transactional
-    public void blacklistToken(String token) {
-        log.info("Blacklisting token");
-        
-        // Extract expiration date from token
-        Date expirationDate = jwtService.extractExpiration(token);
-        if (expirationDate == null) {
-            log.warn("Could not extract expiration date from token");
+    // Digests of unexpired revocations: this instance's own, plus every stored one once mirrored
+    private final Map<String, Instant> localRevocations = new ConcurrentHashMap<>();
+    private final Object walLock = new Object();
+    private List<RevocationWriteAheadLog.Entry> pendingRevocations = new ArrayList<>();
+    private RevocationWriteAheadLog writeAheadLog;
+    // Newest created_at mirrored from the table; null until the first load, and lookups query until then
+    private volatile Instant syncWatermark;
+    private volatile Instant restoredWatermark;
+    private volatile boolean mirroring;
+
+    @Value("${application.security.blacklist.cleanup-chunk-size}")
+    private int cleanupChunkSize;
+
+    @Value("${application.security.blacklist.cleanup-lease-seconds}")
+    private long cleanupLeaseSeconds;
+
+    @Value("${application.security.blacklist.wal-path}")
+    private String walPath;
+
+    @Value("${application.security.blacklist.sync-slack-seconds}")
+    private long syncSlackSeconds;
+
+    @PostConstruct
+    void replayWriteAheadLog() throws IOException {
+        Gauge.builder("blacklist.revocations.pending", this, TokenBlacklistService::pendingCount).register(meterRegistry);
+        if (walPath.isBlank()) {
+            log.info("No revocation log configured, logouts are written to the database directly");
             return;
         }
+        writeAheadLog = new RevocationWriteAheadLog(Path.of(walPath));
+        // Logs written before revocations were stored as digests hold raw tokens
+        List<RevocationWriteAheadLog.Entry> unflushed = writeAheadLog.readAll().stream()
+                .map(entry -> new RevocationWriteAheadLog.Entry(TokenDigest.normalize(entry.tokenDigest()), entry.expiry()))
+                .toList();
+        unflushed.forEach(entry -> localRevocations.put(entry.tokenDigest(), entry.expiry()));
+        pendingRevocations.addAll(unflushed);
+        if (!unflushed.isEmpty()) {
+            log.info("Replaying {} unflushed revocations from {}", unflushed.size(), walPath);
+            flushRevocations();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws IOException {
+        if (writeAheadLog != null) {
+            flushRevocations();
+            writeAheadLog.close();
+        }
+    }
 
-        BlacklistedToken blacklistedToken = new BlacklistedToken();
-        blacklistedToken.setToken(token);
-        blacklistedToken.setExpiryDate(expirationDate.toInstant());
-        blacklistedToken.setCreatedAt(Instant.now());
+    /**
+     * Revokes the token and, when it carries a session id, every token renewed within that session
+     * until {@code sessionExpiry}, the latest any of them can expire.
+     */
+    public void blacklistToken(String token, Claims claims, Instant sessionExpiry) {
+        log.info("Blacklisting token");
 
-        blacklistedTokenRepository.save(blacklistedToken);
+        List<RevocationWriteAheadLog.Entry> entries = new ArrayList<>(2);
+        entries.add(new RevocationWriteAheadLog.Entry(TokenDigest.of(token), claims.getExpiration().toInstant()));
+        String sessionId = jwtService.extractSessionId(claims);
+        if (sessionId != null) {
+            entries.add(new RevocationWriteAheadLog.Entry(TokenDigest.of(sessionKey(sessionId)), sessionExpiry));
+        }
+        if (writeAheadLog == null) {
+            insertRevocations(entries);
+        } else {
+            // Durable on local disk and effective here immediately; the database write is batched
+            appendToWriteAheadLog(entries);
+        }
+        entries.forEach(entry -> localRevocations.put(entry.tokenDigest(), entry.expiry()));
         log.info("Token blacklisted successfully");
     }
 
-    public boolean isTokenBlacklisted(String token) {
-        return blacklistedTokenRepository.findByToken(token).isPresent();
+    private void appendToWriteAheadLog(List<RevocationWriteAheadLog.Entry> entries) {
+        try {
+            long sequence = 0;
+            synchronized (walLock) {
+                for (RevocationWriteAheadLog.Entry entry : entries) {
+                    sequence = writeAheadLog.write(entry);
+                }
+                pendingRevocations.addAll(entries);
+            }
+            // Outside the lock, so concurrent logouts wait for one shared fsync
+            writeAheadLog.sync(sequence);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not record token revocation", e);
+        }
     }
 
-    @Scheduled(fixedRate = 3600000) // Run every hour
-    @Transactional
+    @Scheduled(fixedDelayString = "${application.security.blacklist.flush-interval-ms}")
+    public void flushRevocations() {
+        List<RevocationWriteAheadLog.Entry> batch;
+        synchronized (walLock) {
+            if (pendingRevocations.isEmpty()) {
+                return;
+            }
+            batch = pendingRevocations;
+            pendingRevocations = new ArrayList<>();
+        }
+
+        try {
+            insertRevocations(batch);
+        } catch (Exception e) {
+            log.error("Error flushing {} revocations, will retry: {}", batch.size(), e.getMessage());
+            synchronized (walLock) {
+                batch.addAll(pendingRevocations);
+                pendingRevocations = batch;
+            }
+            return;
+        }
+
+        // Flushed entries leave the log; anything appended meanwhile is written back
+        synchronized (walLock) {
+            try {
+                writeAheadLog.rewrite(pendingRevocations);
+            } catch (IOException e) {
+                log.error("Error compacting revocation log: {}", e.getMessage());
+            }
+        }
+        meterRegistry.counter("blacklist.revocations.flushed").increment(batch.size());
+        log.debug("Flushed {} revocations to the database", batch.size());
+    }
+
+    private void insertRevocations(List<RevocationWriteAheadLog.Entry> entries) {
+        jdbcTemplate.batchUpdate(INSERT_TOKEN, entries, entries.size(), (ps, entry) -> {
+            ps.setString(1, entry.tokenDigest());
+            ps.setTimestamp(2, Timestamp.from(entry.expiry()));
+        });
+    }
+
+    /**
+     * Starts mirroring the table, from a restored snapshot of it when there is one, so that tokens
+     * which were never revoked are answered without a query.
+     */
+    public void initializeRevocations(AuthCacheSnapshot.RevocationSetState restored) {
+        if (restored != null) {
+            Instant now = Instant.now();
+            restored.entries().stream()
+                    .filter(entry -> entry.expiry().isAfter(now))
+                    .forEach(entry -> localRevocations.putIfAbsent(entry.tokenDigest(), entry.expiry()));
+            restoredWatermark = restored.watermark();
+        }
+        mirroring = true;
+        syncRevocations();
+    }
+
+    @Scheduled(fixedDelayString = "${application.security.blacklist.sync-interval-ms}")
+    public synchronized void syncRevocations() {
+        if (!mirroring) {
+            return;
+        }
+        try {
+            Instant since = syncWatermark != null ? syncWatermark : restoredWatermark;
+            long start = System.currentTimeMillis();
+            Instant watermark = loadRevocations(since);
+            if (syncWatermark == null) {
+                log.info("Mirrored {} revocations in {} ms", localRevocations.size(), System.currentTimeMillis() - start);
+            }
+            syncWatermark = watermark;
+        } catch (Exception e) {
+            // Until a first load succeeds, lookups keep going to the database
+            log.error("Error syncing revocations: {}", e.getMessage());
+        }
+        Instant now = Instant.now();
+        localRevocations.values().removeIf(expiry -> expiry.isBefore(now));
+    }
+
+    // Rows committed late or stamped by a lagging clock are covered by re-reading the slack before the watermark
+    private Instant loadRevocations(Instant since) {
+        Timestamp now = Timestamp.from(Instant.now());
+        Instant[] newest = {since != null ? since : Instant.EPOCH};
+        RowCallbackHandler handler = rs -> {
+            localRevocations.put(TokenDigest.normalize(rs.getString(1)), rs.getTimestamp(2).toInstant());
+            Instant createdAt = rs.getTimestamp(3).toInstant();
+            if (createdAt.isAfter(newest[0])) {
+                newest[0] = createdAt;
+            }
+        };
+        if (since == null) {
+            jdbcTemplate.query(SELECT_UNEXPIRED, handler, now);
+        } else {
+            jdbcTemplate.query(SELECT_CREATED_SINCE, handler, Timestamp.from(since.minusSeconds(syncSlackSeconds)), now);
+        }
+        return newest[0];
+    }
+
+    /**
+     * The mirrored revocation set for the snapshot, or null while it has not been loaded.
+     */
+    public AuthCacheSnapshot.RevocationSetState revocationSetState() {
+        Instant watermark = syncWatermark;
+        if (watermark == null) {
+            return null;
+        }
+        Instant now = Instant.now();
+        List<RevocationWriteAheadLog.Entry> entries = new ArrayList<>(localRevocations.size());
+        localRevocations.forEach((digest, expiry) -> {
+            if (expiry.isAfter(now)) {
+                entries.add(new RevocationWriteAheadLog.Entry(digest, expiry));
+            }
+        });
+        return new AuthCacheSnapshot.RevocationSetState(watermark, entries);
+    }
+
+    /**
+     * Whether the token, or the session it was renewed within, has been revoked.
+     */
+    public boolean isTokenBlacklisted(String token, String sessionId) {
+        BlacklistLookupEvent event = new BlacklistLookupEvent();
+        event.begin();
+        String digest = TokenDigest.of(token);
+        String sessionDigest = sessionId != null ? TokenDigest.of(sessionKey(sessionId)) : null;
+        // Once mirrored, a token missing from the set was not revoked as of the last sync
+        boolean blacklisted = localRevocations.containsKey(digest)
+                || (sessionDigest != null && localRevocations.containsKey(sessionDigest))
+                || (syncWatermark == null && blacklistedTokenRepository.existsByTokenIn(
+                        sessionDigest != null ? List.of(digest, token, sessionDigest) : List.of(digest, token)));
+        event.tokens = 1;
+        event.revoked = blacklisted ? 1 : 0;
+        event.commit();
+        return blacklisted;
+    }
+
+    /**
+     * The key a session revocation is stored under; like tokens, it is looked up by digest.
+     * Lookups for these keys can share a batch with tokens, which never start with the prefix.
+     */
+    public static String sessionKey(String sessionId) {
+        return SESSION_KEY_PREFIX + sessionId;
+    }
+
+    public Set<String> findBlacklistedTokens(Collection<String> tokens) {
+        if (tokens.isEmpty()) {
+            return Set.of();
+        }
+        BlacklistLookupEvent event = new BlacklistLookupEvent();
+        event.begin();
+        Set<String> blacklisted = new HashSet<>();
+        Map<String, String> unresolved = new HashMap<>();
+        for (String token : tokens) {
+            String digest = TokenDigest.of(token);
+            if (localRevocations.containsKey(digest)) {
+                blacklisted.add(token);
+            } else {
+                unresolved.put(token, digest);
+            }
+        }
+        if (!unresolved.isEmpty() && syncWatermark == null) {
+            // Rows revoked before digests were stored match on the raw token
+            List<String> keys = new ArrayList<>(unresolved.size() * 2);
+            unresolved.forEach((token, digest) -> {
+                keys.add(digest);
+                keys.add(token);
+            });
+            Set<String> stored = blacklistedTokenRepository.findBlacklistedTokens(keys);
+            unresolved.forEach((token, digest) -> {
+                if (stored.contains(digest) || stored.contains(token)) {
+                    blacklisted.add(token);
+                }
+            });
+        }
+        event.tokens = tokens.size();
+        event.revoked = blacklisted.size();
+        event.commit();
+        return blacklisted;
+    }
+
+    @Scheduled(fixedRateString = "${application.security.blacklist.cleanup-interval-ms}")
     public void cleanupExpiredTokens() {
-        log.info("Cleaning up expired blacklisted tokens");
-        blacklistedTokenRepository.deleteExpiredTokens(Instant.now());
-        log.info("Expired blacklisted tokens cleanup completed");
+        // Only one instance purges at a time; the others skip this round
+        if (!maintenanceLeaseService.tryAcquire(CLEANUP_LEASE, Duration.ofSeconds(cleanupLeaseSeconds))) {
+            log.debug("Skipping blacklisted token cleanup, lease held by another instance");
+            return;
+        }
+        try {
+            log.info("Cleaning up expired blacklisted tokens");
+            Timer.Sample sample = Timer.start(meterRegistry);
+            Instant now = Instant.now();
+
+            // Bounded chunks, oldest first, each deleted in its own short transaction
+            long purged = deleteInChunks(() -> {
+                List<Long> expired = blacklistedTokenRepository.findExpiredChunk(now, cleanupChunkSize);
+                return expired.isEmpty() ? 0 : blacklistedTokenRepository.deleteExpired(expired, now);
+            });
+
+            meterRegistry.counter("blacklist.cleanup.rows.purged").increment(purged);
+            sample.stop(meterRegistry.timer("blacklist.cleanup.duration"));
+            log.info("Expired blacklisted tokens cleanup completed, {} rows purged", purged);
+        } finally {
+            maintenanceLeaseService.release(CLEANUP_LEASE);
+        }
+    }
+
+    private int pendingCount() {
+        synchronized (walLock) {
+            return pendingRevocations.size();
+        }
+    }
+
+    private long deleteInChunks(ChunkDeletion deletion) {
+        long total = 0;
+        int deleted;
+        do {
+            deleted = deletion.deleteChunk();
+            total += deleted;
+        } while (deleted == cleanupChunkSize);
+        return total;
+    }
+
+    @FunctionalInterface
+    private interface ChunkDeletion {
+        int deleteChunk();
     }
 } 
\ No newline at end of file
@@ -0,0 +1,109 @@
+package com.url.springstarterkit.service;
+
+import com.url.springstarterkit.dto.IntrospectionResponse;
+import com.url.springstarterkit.dto.TokenIntrospection;
+import com.url.springstarterkit.model.Role;
+import com.url.springstarterkit.model.User;
+import com.url.springstarterkit.repository.UserRepository;
+import com.url.springstarterkit.security.JwtService;
+import com.url.springstarterkit.sharding.ShardRouter;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TokenIntrospectionService {
+
+    private static final String TOO_MANY_TOKENS = "At most %d tokens can be introspected per request";
+
+    private final JwtService jwtService;
+    private final TokenBlacklistService tokenBlacklistService;
+    private final UserRepository userRepository;
+    private final ShardRouter shardRouter;
+
+    @Value("${application.security.jwt.introspection.max-tokens}")
+    private int maxTokens;
+
+    public IntrospectionResponse introspect(List<String> tokens) {
+        if (tokens.size() > maxTokens) {
+            log.warn("Introspection rejected - {} tokens exceeds limit of {}", tokens.size(), maxTokens);
+            throw new IllegalArgumentException(String.format(TOO_MANY_TOKENS, maxTokens));
+        }
+        log.info("Introspecting {} tokens", tokens.size());
+
+        // Signature and expiry are checked locally; anything that fails to parse is simply inactive
+        List<Claims> claims = new ArrayList<>(tokens.size());
+        Set<String> revocationKeys = new HashSet<>();
+        Set<String> subjects = new LinkedHashSet<>();
+        for (String token : tokens) {
+            Claims tokenClaims = parse(token);
+            claims.add(tokenClaims);
+            if (tokenClaims != null && tokenClaims.getSubject() != null) {
+                revocationKeys.add(token);
+                String sessionId = jwtService.extractSessionId(tokenClaims);
+                if (sessionId != null) {
+                    revocationKeys.add(TokenBlacklistService.sessionKey(sessionId));
+                }
+                subjects.add(tokenClaims.getSubject());
+            }
+        }
+
+        // One set-based lookup for token and session revocations and one per shard for the subjects' roles
+        Set<String> revoked = tokenBlacklistService.findBlacklistedTokens(revocationKeys);
+        Map<String, List<String>> rolesBySubject = new HashMap<>();
+        if (!subjects.isEmpty()) {
+            shardRouter.groupByShard(subjects, shardRouter::shardForEmail).forEach((shard, emails) -> {
+                for (User user : shardRouter.onShard(shard, () -> userRepository.findAllWithRolesByEmailIn(emails))) {
+                    rolesBySubject.put(user.getEmail(), user.getRoles().stream().map(Role::getAuthority).sorted().toList());
+                }
+            });
+        }
+
+        List<TokenIntrospection> results = new ArrayList<>(tokens.size());
+        for (int i = 0; i < tokens.size(); i++) {
+            Claims tokenClaims = claims.get(i);
+            if (tokenClaims == null
+                    || tokenClaims.getSubject() == null
+                    || revoked.contains(tokens.get(i))
+                    || isSessionRevoked(tokenClaims, revoked)
+                    || !rolesBySubject.containsKey(tokenClaims.getSubject())) {
+                results.add(TokenIntrospection.inactive());
+                continue;
+            }
+            results.add(new TokenIntrospection(
+                    true,
+                    tokenClaims.getSubject(),
+                    rolesBySubject.get(tokenClaims.getSubject()),
+                    tokenClaims.getExpiration().toInstant().getEpochSecond()
+            ));
+        }
+        return new IntrospectionResponse(results);
+    }
+
+    private boolean isSessionRevoked(Claims claims, Set<String> revoked) {
+        String sessionId = jwtService.extractSessionId(claims);
+        return sessionId != null && revoked.contains(TokenBlacklistService.sessionKey(sessionId));
+    }
+
+    private Claims parse(String token) {
+        try {
+            return jwtService.extractAllClaims(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("Token failed introspection: {}", e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.url.springstarterkit.service;
+
+import com.url.springstarterkit.sharding.ShardRouter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Numbers committed user changes for the change feed. Writers only mark a row as changed by
+ * clearing {@code change_seq}; this job then gives pending rows the next sequence values while
+ * holding the shard's sequence row lock. Rows are numbered only once their change is visible and
+ * batches commit in sequence order, so a reader that has seen a value has seen everything below
+ * it, independent of clocks and of how long the writing transaction took to commit.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserChangeSequencer {
+
+    private static final int SEQUENCE_ROW = 1;
+    private static final String INSERT_SEQUENCE =
+            "INSERT INTO user_change_sequence (id, last_sequence) " +
+            "SELECT ?, (SELECT COALESCE(MAX(change_seq), 0) FROM users) FROM DUAL " +
+            "WHERE NOT EXISTS (SELECT 1 FROM user_change_sequence WHERE id = ?)";
+    private static final String LOCK_SEQUENCE = "SELECT last_sequence FROM user_change_sequence WHERE id = ? FOR UPDATE";
+    private static final String UPDATE_SEQUENCE = "UPDATE user_change_sequence SET last_sequence = ? WHERE id = ?";
+    private static final String SELECT_PENDING = "SELECT id FROM users WHERE change_seq IS NULL ORDER BY id LIMIT ?";
+    private static final String ASSIGN_SEQUENCE = "UPDATE users SET change_seq = ? WHERE id = ? AND change_seq IS NULL";
+    // Rows written before the timestamps were maintained, or by raw inserts that left them out
+    private static final String BACKFILL_TIMESTAMPS =
+            "UPDATE users SET created_at = COALESCE(created_at, CURRENT_TIMESTAMP), " +
+            "updated_at = COALESCE(updated_at, created_at, CURRENT_TIMESTAMP) " +
+            "WHERE created_at IS NULL OR updated_at IS NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+
+    @Value("${application.users.changes.sequence-batch-size}")
+    private int batchSize;
+
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        for (int shard : shardRouter.getShards()) {
+            shardRouter.runOnShard(shard, () -> {
+                int backfilled = jdbcTemplate.update(BACKFILL_TIMESTAMPS);
+                if (backfilled > 0) {
+                    log.info("Backfilled timestamps of {} users on shard {}", backfilled, shard);
+                }
+                jdbcTemplate.update(INSERT_SEQUENCE, SEQUENCE_ROW, SEQUENCE_ROW);
+            });
+        }
+        ready = true;
+        assignSequences();
+    }
+
+    @Scheduled(fixedDelayString = "${application.users.changes.sequence-interval-ms}")
+    public void assignSequences() {
+        if (!ready) {
+            return;
+        }
+        for (int shard : shardRouter.getShards()) {
+            try {
+                long assigned = 0;
+                int batch;
+                do {
+                    batch = shardRouter.onShard(shard, () -> transactionTemplate.execute(status -> assignBatch()));
+                    assigned += batch;
+                } while (batch == batchSize);
+                if (assigned > 0) {
+                    log.debug("Assigned change sequences to {} users on shard {}", assigned, shard);
+                }
+            } catch (Exception e) {
+                log.error("Error assigning change sequences on shard {}: {}", shard, e.getMessage());
+            }
+        }
+    }
+
+    private int assignBatch() {
+        // Instances run this concurrently; the row lock makes their batches take turns
+        Long last = jdbcTemplate.queryForObject(LOCK_SEQUENCE, Long.class, SEQUENCE_ROW);
+        List<Long> pending = jdbcTemplate.queryForList(SELECT_PENDING, Long.class, batchSize);
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        long next = last == null ? 0 : last;
+        List<Object[]> assignments = new ArrayList<>(pending.size());
+        for (Long id : pending) {
+            assignments.add(new Object[]{++next, id});
+        }
+        jdbcTemplate.batchUpdate(ASSIGN_SEQUENCE, assignments);
+        jdbcTemplate.update(UPDATE_SEQUENCE, next, SEQUENCE_ROW);
+        return pending.size();
+    }
+}
@@ -0,0 +1,185 @@
+package com.url.springstarterkit.service;
+
+import com.url.springstarterkit.dto.RoleAssignmentResponse;
+import com.url.springstarterkit.event.UserRolesChangedEvent;
+import com.url.springstarterkit.exception.ResourceNotFoundException;
+import com.url.springstarterkit.model.Role;
+import com.url.springstarterkit.repository.RoleRepository;
+import com.url.springstarterkit.sharding.ShardContext;
+import com.url.springstarterkit.sharding.ShardRouter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Grants and revokes roles for many users at once with set-based statements on {@code user_roles},
+ * bypassing the EAGER {@code User.roles} collection and Hibernate dirty checking. Each shard's
+ * users are updated in one transaction on that shard, with their {@code users} rows locked, so the
+ * users found with or without the role are exactly the ones the statements change.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserRoleService {
+
+    private static final String ROLE_NOT_FOUND = "Role %s not found";
+    private static final String TOO_MANY_USERS = "At most %d users can be updated per request";
+
+    private static final String SELECT_USERS_WITHOUT_ROLE =
+            "SELECT u.id FROM users u WHERE u.id IN (:ids) " +
+            "AND NOT EXISTS (SELECT 1 FROM user_roles ur WHERE ur.user_id = u.id AND ur.role_id = :roleId)";
+    private static final String SELECT_USERS_WITH_ROLE =
+            "SELECT ur.user_id FROM user_roles ur WHERE ur.role_id = :roleId AND ur.user_id IN (:ids)";
+    // Concurrent role changes for the same users wait here; in ascending id order, so they cannot deadlock
+    private static final String LOCK_USERS = "SELECT id FROM users WHERE id IN (:ids) ORDER BY id FOR UPDATE";
+    private static final String INSERT_USER_ROLE = "INSERT INTO user_roles (user_id, role_id) VALUES (?, ?)";
+    private static final String DELETE_USER_ROLES = "DELETE FROM user_roles WHERE role_id = :roleId AND user_id IN (:ids)";
+    private static final String TOUCH_USERS = "UPDATE users SET updated_at = :now, change_seq = NULL WHERE id IN (:ids)";
+    private static final String SELECT_EXISTING_USERS = "SELECT id FROM users WHERE id IN (:ids)";
+
+    // Keeps IN lists well below driver and optimizer limits
+    private static final int CHUNK_SIZE = 1000;
+
+    private final RoleRepository roleRepository;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${application.users.roles.max-batch-size}")
+    private int maxBatchSize;
+
+    public RoleAssignmentResponse grantRole(Role.RoleName roleName, List<Long> userIds) {
+        Long roleId = resolveRoleId(roleName, userIds);
+        log.info("Granting role {} to {} users", roleName, userIds.size());
+
+        int changed = 0;
+        for (Map.Entry<Integer, List<Long>> shard : locateUsers(userIds).entrySet()) {
+            changed += shardRouter.onShard(shard.getKey(), () -> transactionTemplate.execute(
+                    status -> grantOnShard(roleName, roleId, shard.getValue())));
+        }
+        return complete(roleName, userIds.size(), changed, true);
+    }
+
+    public RoleAssignmentResponse revokeRole(Role.RoleName roleName, List<Long> userIds) {
+        Long roleId = resolveRoleId(roleName, userIds);
+        log.info("Revoking role {} from {} users", roleName, userIds.size());
+
+        int changed = 0;
+        for (Map.Entry<Integer, List<Long>> shard : locateUsers(userIds).entrySet()) {
+            changed += shardRouter.onShard(shard.getKey(), () -> transactionTemplate.execute(
+                    status -> revokeOnShard(roleName, roleId, shard.getValue())));
+        }
+        return complete(roleName, userIds.size(), changed, false);
+    }
+
+    private int grantOnShard(Role.RoleName roleName, Long roleId, List<Long> userIds) {
+        Set<Long> changed = new LinkedHashSet<>();
+        for (List<Long> chunk : chunks(userIds)) {
+            jdbcTemplate.queryForList(LOCK_USERS, new MapSqlParameterSource("ids", chunk), Long.class);
+            // Batched inserts may report SUCCESS_NO_INFO, so the changed users come from this read under the lock
+            List<Long> missing = jdbcTemplate.queryForList(SELECT_USERS_WITHOUT_ROLE,
+                    params(roleId, chunk), Long.class);
+            if (missing.isEmpty()) {
+                continue;
+            }
+            jdbcTemplate.getJdbcTemplate().batchUpdate(INSERT_USER_ROLE, missing, missing.size(),
+                    (ps, userId) -> {
+                        ps.setLong(1, userId);
+                        ps.setLong(2, roleId);
+                    });
+            changed.addAll(missing);
+        }
+        return applyChanges(roleName, changed, true);
+    }
+
+    private int revokeOnShard(Role.RoleName roleName, Long roleId, List<Long> userIds) {
+        Set<Long> changed = new LinkedHashSet<>();
+        for (List<Long> chunk : chunks(userIds)) {
+            jdbcTemplate.queryForList(LOCK_USERS, new MapSqlParameterSource("ids", chunk), Long.class);
+            List<Long> holders = jdbcTemplate.queryForList(SELECT_USERS_WITH_ROLE, params(roleId, chunk), Long.class);
+            if (holders.isEmpty()) {
+                continue;
+            }
+            int deleted = jdbcTemplate.update(DELETE_USER_ROLES, params(roleId, holders));
+            if (deleted != holders.size()) {
+                // The lock makes this unreachable; rolling back keeps the counters from drifting if it is not
+                throw new IllegalStateException(String.format(
+                        "Revoking role %s deleted %d rows for %d holders", roleName, deleted, holders.size()));
+            }
+            changed.addAll(holders);
+        }
+        return applyChanges(roleName, changed, false);
+    }
+
+    private Map<Integer, List<Long>> locateUsers(List<Long> userIds) {
+        List<Long> distinct = List.copyOf(new LinkedHashSet<>(userIds));
+        if (!shardRouter.isSharded()) {
+            return Map.of(ShardContext.PRIMARY_SHARD, distinct);
+        }
+        return shardRouter.findByIds(distinct, ids -> {
+            List<Long> existing = new ArrayList<>();
+            for (List<Long> chunk : chunks(ids)) {
+                existing.addAll(jdbcTemplate.queryForList(SELECT_EXISTING_USERS, new MapSqlParameterSource("ids", chunk), Long.class));
+            }
+            return existing;
+        }, Long::longValue);
+    }
+
+    private Long resolveRoleId(Role.RoleName roleName, List<Long> userIds) {
+        if (userIds.size() > maxBatchSize) {
+            log.warn("Role update rejected - {} users exceeds limit of {}", userIds.size(), maxBatchSize);
+            throw new IllegalArgumentException(String.format(TOO_MANY_USERS, maxBatchSize));
+        }
+        return roleRepository.findByName(roleName)
+                .map(Role::getId)
+                .orElseThrow(() -> {
+                    log.error("Role {} not found in database", roleName);
+                    return new ResourceNotFoundException(String.format(ROLE_NOT_FOUND, roleName));
+                });
+    }
+
+    private int applyChanges(Role.RoleName roleName, Set<Long> changed, boolean granted) {
+        if (!changed.isEmpty()) {
+            // Role changes count as user changes for the change feed
+            Timestamp now = Timestamp.from(Instant.now());
+            for (List<Long> chunk : chunks(new ArrayList<>(changed))) {
+                jdbcTemplate.update(TOUCH_USERS, new MapSqlParameterSource("now", now).addValue("ids", chunk));
+            }
+            eventPublisher.publishEvent(new UserRolesChangedEvent(roleName, Set.copyOf(changed), granted));
+        }
+        return changed.size();
+    }
+
+    private RoleAssignmentResponse complete(Role.RoleName roleName, int requested, int changed, boolean granted) {
+        log.info("Role {} {} for {} of {} requested users", roleName, granted ? "granted" : "revoked",
+                changed, requested);
+        return new RoleAssignmentResponse(roleName.name(), requested, changed);
+    }
+
+    private static MapSqlParameterSource params(Long roleId, List<Long> ids) {
+        return new MapSqlParameterSource("roleId", roleId).addValue("ids", ids);
+    }
+
+    private static List<List<Long>> chunks(List<Long> ids) {
+        List<Long> distinct = List.copyOf(new LinkedHashSet<>(ids));
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int i = 0; i < distinct.size(); i += CHUNK_SIZE) {
+            chunks.add(distinct.subList(i, Math.min(i + CHUNK_SIZE, distinct.size())));
+        }
+        return chunks;
+    }
+}
@@ -1,20 +1,41 @@
 package com.url.springstarterkit.service;
 
 import com.url.springstarterkit.dto.PaginationResponse;
+import com.url.springstarterkit.dto.UserBatchResponse;
+import com.url.springstarterkit.dto.UserChangesResponse;
+import com.url.springstarterkit.dto.UserField;
+import com.url.springstarterkit.dto.UserLookupResult;
 import com.url.springstarterkit.dto.UserResponse;
+import com.url.springstarterkit.dto.UserStatsResponse;
 import com.url.springstarterkit.exception.ResourceNotFoundException;
-import com.url.springstarterkit.model.User;
+import com.url.springstarterkit.jfr.UserMappingEvent;
 import com.url.springstarterkit.repository.UserRepository;
+import com.url.springstarterkit.repository.projection.UserChange;
+import com.url.springstarterkit.repository.projection.UserRoleView;
+import com.url.springstarterkit.repository.projection.UserSummary;
+import com.url.springstarterkit.sharding.ShardContext;
+import com.url.springstarterkit.sharding.ShardRouter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
-import org.springframework.data.domain.Page;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -23,33 +44,62 @@ import java.util.stream.Collectors;
 public class UserService {
 
     private static final String USER_NOT_FOUND = "User not found with id: %d";
+    private static final String INVALID_CURSOR = "Invalid change cursor";
+    private static final String CURSOR_PREFIX = "seq:";
+    private static final String INVALID_LIMIT = "Limit must be between 1 and %d";
+    private static final String TOO_MANY_IDS = "At most %d user ids can be requested at once";
+    private static final String UNSUPPORTED_SHARDED_SORT = "Sorting by %s is not supported across shards";
+    private static final String SHARDED_PAGE_TOO_DEEP =
+            "Listings across shards only reach the first %d users; use a narrower sort or the change feed";
 
     private final UserRepository userRepository;
-    private final ModelMapper modelMapper;
+    private final UserStatisticsService userStatisticsService;
+    private final ShardRouter shardRouter;
 
-    public PaginationResponse<UserResponse> getAllUsers(int page, int size, String sortBy, String direction) {
+    @Value("${application.users.changes.max-limit}")
+    private int maxChangesLimit;
+
+    @Value("${application.users.batch.max-ids}")
+    private int maxBatchIds;
+
+    @Value("${application.sharding.max-page-depth}")
+    private int maxShardedPageDepth;
+
+    public PaginationResponse<UserResponse> getAllUsers(int page, int size, String sortBy, String direction, String fields) {
         try {
-            log.info("Fetching users with pagination - page: {}, size: {}, sortBy: {}, direction: {}", 
-                    page, size, sortBy, direction);
+            log.info("Fetching users with pagination - page: {}, size: {}, sortBy: {}, direction: {}, fields: {}", 
+                    page, size, sortBy, direction, fields);
             
+            UserMappingEvent event = new UserMappingEvent();
+            event.begin();
+            Set<UserField> selectedFields = UserField.parse(fields);
             Sort.Direction sortDirection = Sort.Direction.fromString(direction);
             Pageable pageable = PageRequest.of(page, size, Sort.by(sortDirection, sortBy));
             
-            Page<User> userPage = userRepository.findAll(pageable);
+            Map<Integer, List<Long>> idsByShard = new TreeMap<>();
+            List<UserSummary> users = findSummaryPage(pageable, selectedFields, idsByShard);
+            Map<Long, List<String>> rolesByUser = loadRoles(selectedFields, idsByShard);
             
-            List<UserResponse> userResponses = userPage.getContent().stream()
-                    .map(user -> modelMapper.map(user, UserResponse.class))
+            List<UserResponse> userResponses = users.stream()
+                    .map(user -> toResponse(user, selectedFields, rolesByUser))
                     .collect(Collectors.toList());
+            event.operation = "getAllUsers";
+            event.rowsReturned = userResponses.size();
+            event.rolesLoaded = selectedFields.contains(UserField.ROLES);
+            event.commit();
             
             log.info("Successfully fetched {} users", userResponses.size());
             
+            // The total is the maintained counter, so paging never runs count(*) over users
+            long totalElements = userStatisticsService.getTotalUsers();
+            int totalPages = (int) Math.ceil((double) totalElements / size);
             return new PaginationResponse<>(
                     userResponses,
-                    userPage.getNumber(),
-                    userPage.getSize(),
-                    userPage.getTotalElements(),
-                    userPage.getTotalPages(),
-                    userPage.isLast()
+                    page,
+                    size,
+                    totalElements,
+                    totalPages,
+                    page + 1 >= totalPages
             );
         } catch (Exception e) {
             log.error("Error fetching users: {}", e.getMessage(), e);
@@ -57,22 +107,276 @@ public class UserService {
         }
     }
 
-    public UserResponse getUserById(Long id) {
+    public UserResponse getUserById(Long id, String fields) {
         try {
             log.info("Fetching user with id: {}", id);
             
-            User user = userRepository.findById(id)
-                    .orElseThrow(() -> {
-                        String errorMessage = String.format(USER_NOT_FOUND, id);
-                        log.error(errorMessage);
-                        return new ResourceNotFoundException(errorMessage);
-                    });
+            UserMappingEvent event = new UserMappingEvent();
+            event.begin();
+            Set<UserField> selectedFields = UserField.parse(fields);
+            Map<Integer, List<UserSummary>> found = shardRouter.findByIds(
+                    List.of(id), summariesByIdFinder(selectedFields), UserSummary::getId);
+            if (found.isEmpty()) {
+                String errorMessage = String.format(USER_NOT_FOUND, id);
+                log.error(errorMessage);
+                throw new ResourceNotFoundException(errorMessage);
+            }
+            UserSummary user = found.values().iterator().next().get(0);
+            
+            UserResponse response = toResponse(user, selectedFields, loadRoles(selectedFields, idsByShard(found)));
+            event.operation = "getUserById";
+            event.rowsReturned = 1;
+            event.rolesLoaded = selectedFields.contains(UserField.ROLES);
+            event.commit();
             
             log.info("Successfully fetched user with id: {}", id);
-            return modelMapper.map(user, UserResponse.class);
+            return response;
         } catch (Exception e) {
             log.error("Error fetching user with id {}: {}", id, e.getMessage(), e);
             throw e;
         }
     }
-} 
\ No newline at end of file
+
+    public UserBatchResponse getUsersByIds(List<Long> ids, String fields) {
+        if (ids == null || ids.isEmpty()) {
+            throw new IllegalArgumentException("At least one user id is required");
+        }
+        if (ids.size() > maxBatchIds) {
+            throw new IllegalArgumentException(String.format(TOO_MANY_IDS, maxBatchIds));
+        }
+        log.info("Fetching {} users by id", ids.size());
+
+        UserMappingEvent event = new UserMappingEvent();
+        event.begin();
+        Set<UserField> selectedFields = UserField.parse(fields);
+        // Duplicates are looked up once but still answered at every position they were requested
+        Set<Long> distinctIds = new LinkedHashSet<>(ids);
+        Map<Integer, List<UserSummary>> usersByShard = shardRouter.findByIds(
+                distinctIds, summariesByIdFinder(selectedFields), UserSummary::getId);
+        Map<Long, UserSummary> usersById = new HashMap<>();
+        usersByShard.values().forEach(users -> users.forEach(user -> usersById.put(user.getId(), user)));
+        Map<Long, List<String>> rolesByUser = loadRoles(selectedFields, idsByShard(usersByShard));
+
+        List<UserLookupResult> results = new ArrayList<>(ids.size());
+        int found = 0;
+        for (Long id : ids) {
+            UserSummary user = usersById.get(id);
+            if (user == null) {
+                results.add(new UserLookupResult(id, false, null));
+            } else {
+                results.add(new UserLookupResult(id, true, toResponse(user, selectedFields, rolesByUser)));
+                found++;
+            }
+        }
+        event.operation = "getUsersByIds";
+        event.rowsReturned = usersById.size();
+        event.rolesLoaded = selectedFields.contains(UserField.ROLES);
+        event.commit();
+
+        log.info("Found {} of {} requested users", found, ids.size());
+        return new UserBatchResponse(results, found, ids.size() - found);
+    }
+
+    public UserStatsResponse getStats() {
+        log.info("Fetching user statistics");
+        return userStatisticsService.getStats();
+    }
+
+    public UserChangesResponse getChangesSince(String cursor, int limit) {
+        if (limit < 1 || limit > maxChangesLimit) {
+            throw new IllegalArgumentException(String.format(INVALID_LIMIT, maxChangesLimit));
+        }
+        log.info("Fetching user changes since cursor: {}, limit: {}", cursor, limit);
+
+        // The cursor holds the last change sequence returned from each shard
+        List<Integer> shards = shardRouter.getShards();
+        long[] positions = decodeCursor(cursor, shards.size());
+
+        UserMappingEvent event = new UserMappingEvent();
+        event.begin();
+        // One extra row per shard tells whether another page follows without a count query
+        List<List<UserChange>> changesByShard = new ArrayList<>(shards.size());
+        for (int shard : shards) {
+            long afterSeq = positions[shard];
+            changesByShard.add(shardRouter.onShard(shard,
+                    () -> userRepository.findChangesSince(afterSeq, PageRequest.of(0, limit + 1))));
+        }
+
+        // Shards are taken round-robin; any interleaving keeps the cursor exact as long as each
+        // shard contributes a prefix of its own sequence
+        List<UserChange> changes = new ArrayList<>(limit);
+        Map<Integer, List<Long>> idsByShard = new TreeMap<>();
+        int[] taken = new int[shards.size()];
+        boolean progressed = true;
+        while (changes.size() < limit && progressed) {
+            progressed = false;
+            for (int shard : shards) {
+                List<UserChange> shardChanges = changesByShard.get(shard);
+                if (changes.size() < limit && taken[shard] < shardChanges.size()) {
+                    UserChange change = shardChanges.get(taken[shard]++);
+                    changes.add(change);
+                    positions[shard] = change.getChangeSeq();
+                    idsByShard.computeIfAbsent(shard, key -> new ArrayList<>()).add(change.getId());
+                    progressed = true;
+                }
+            }
+        }
+        boolean hasMore = false;
+        for (int shard : shards) {
+            hasMore |= taken[shard] < changesByShard.get(shard).size();
+        }
+
+        Set<UserField> allFields = UserField.parse(null);
+        Map<Long, List<String>> rolesByUser = loadRoles(allFields, idsByShard);
+        List<UserResponse> responses = changes.stream()
+                .map(change -> toResponse(change, allFields, rolesByUser))
+                .collect(Collectors.toList());
+        event.operation = "getChangesSince";
+        event.rowsReturned = responses.size();
+        event.rolesLoaded = true;
+        event.commit();
+
+        log.info("Returning {} user changes, hasMore: {}", responses.size(), hasMore);
+        return new UserChangesResponse(responses, encodeCursor(positions), hasMore);
+    }
+
+    private static String encodeCursor(long[] positions) {
+        String position = CURSOR_PREFIX + Arrays.stream(positions)
+                .mapToObj(Long::toString)
+                .collect(Collectors.joining(","));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static long[] decodeCursor(String cursor, int shardCount) {
+        long[] positions = new long[shardCount];
+        if (cursor == null || cursor.isBlank()) {
+            return positions;
+        }
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!position.startsWith(CURSOR_PREFIX)) {
+                // Cursors from the former timestamp-based feed; replaying from the start is safe for consumers
+                log.warn("Restarting change feed for a cursor in an outdated format");
+                return positions;
+            }
+            String[] parts = position.substring(CURSOR_PREFIX.length()).split(",");
+            // Shards added since the cursor was issued start from the beginning
+            for (int shard = 0; shard < Math.min(parts.length, shardCount); shard++) {
+                positions[shard] = Long.parseLong(parts[shard]);
+                if (positions[shard] < 0) {
+                    throw new IllegalArgumentException(INVALID_CURSOR);
+                }
+            }
+            return positions;
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected change cursor {}: {}", cursor, e.getMessage());
+            throw new IllegalArgumentException(INVALID_CURSOR);
+        }
+    }
+
+    /**
+     * One page of users. Unsharded this is a single query; sharded, every shard returns its first
+     * {@code (page + 1) * size} rows in the requested order and the merged result is cut to the page,
+     * so deep pages get more expensive with the page number.
+     */
+    private List<UserSummary> findSummaryPage(Pageable pageable, Set<UserField> selectedFields,
+                                              Map<Integer, List<Long>> idsByShard) {
+        // Merging shards sorted by email needs the email even when it is not returned
+        boolean readEmail = selectedFields.contains(UserField.EMAIL)
+                || (shardRouter.isSharded() && pageable.getSort().getOrderFor("email") != null);
+        Function<Pageable, List<UserSummary>> finder = readEmail
+                ? userRepository::findAllSummaries
+                : userRepository::findAllIdSummaries;
+        if (!shardRouter.isSharded()) {
+            List<UserSummary> users = finder.apply(pageable);
+            idsByShard.put(ShardContext.PRIMARY_SHARD, users.stream().map(UserSummary::getId).toList());
+            return users;
+        }
+
+        // Every shard returns all rows up to the end of the page, so deep pages are refused rather than merged
+        long depth = pageable.getOffset() + pageable.getPageSize();
+        if (depth > maxShardedPageDepth) {
+            throw new IllegalArgumentException(String.format(SHARDED_PAGE_TOO_DEEP, maxShardedPageDepth));
+        }
+        Comparator<UserSummary> order = summaryOrder(pageable.getSort());
+        Pageable head = PageRequest.of(0, (int) depth, pageable.getSort());
+        List<UserSummary> merged = new ArrayList<>();
+        Map<Long, Integer> shardOfUser = new HashMap<>();
+        for (int shard : shardRouter.getShards()) {
+            for (UserSummary user : shardRouter.onShard(shard, () -> finder.apply(head))) {
+                merged.add(user);
+                shardOfUser.put(user.getId(), shard);
+            }
+        }
+        merged.sort(order);
+
+        int from = (int) Math.min(pageable.getOffset(), merged.size());
+        List<UserSummary> users = merged.subList(from, Math.min(from + pageable.getPageSize(), merged.size()));
+        users.forEach(user -> idsByShard.computeIfAbsent(shardOfUser.get(user.getId()), key -> new ArrayList<>())
+                .add(user.getId()));
+        return users;
+    }
+
+    private static Comparator<UserSummary> summaryOrder(Sort sort) {
+        Comparator<UserSummary> order = null;
+        for (Sort.Order sortOrder : sort) {
+            Comparator<UserSummary> comparator = switch (sortOrder.getProperty()) {
+                case "id" -> Comparator.comparing(UserSummary::getId);
+                // Approximates the case-insensitive collation of users.email
+                case "email" -> Comparator.comparing(UserSummary::getEmail, String.CASE_INSENSITIVE_ORDER);
+                default -> throw new IllegalArgumentException(String.format(UNSUPPORTED_SHARDED_SORT, sortOrder.getProperty()));
+            };
+            if (sortOrder.isDescending()) {
+                comparator = comparator.reversed();
+            }
+            order = order == null ? comparator : order.thenComparing(comparator);
+        }
+        Comparator<UserSummary> byId = Comparator.comparing(UserSummary::getId);
+        return order == null ? byId : order.thenComparing(byId);
+    }
+
+    // The id is always read: results are keyed, routed and joined to roles by it
+    private Function<List<Long>, List<UserSummary>> summariesByIdFinder(Set<UserField> selectedFields) {
+        return selectedFields.contains(UserField.EMAIL)
+                ? userRepository::findSummariesByIdIn
+                : userRepository::findIdSummariesByIdIn;
+    }
+
+    private static Map<Integer, List<Long>> idsByShard(Map<Integer, List<UserSummary>> usersByShard) {
+        Map<Integer, List<Long>> ids = new TreeMap<>();
+        usersByShard.forEach((shard, users) -> ids.put(shard, users.stream().map(UserSummary::getId).toList()));
+        return ids;
+    }
+
+    // Roles are only fetched when requested, and then in one query per shard holding the users
+    private Map<Long, List<String>> loadRoles(Set<UserField> selectedFields, Map<Integer, ? extends Collection<Long>> idsByShard) {
+        Map<Long, List<String>> rolesByUser = new HashMap<>();
+        if (!selectedFields.contains(UserField.ROLES)) {
+            return rolesByUser;
+        }
+        idsByShard.forEach((shard, userIds) -> {
+            if (userIds.isEmpty()) {
+                return;
+            }
+            for (UserRoleView view : shardRouter.onShard(shard, () -> userRepository.findRoleNamesByUserIds(userIds))) {
+                rolesByUser.computeIfAbsent(view.getUserId(), key -> new ArrayList<>())
+                        .add(view.getRoleName().name());
+            }
+        });
+        return rolesByUser;
+    }
+
+    private UserResponse toResponse(UserSummary user, Set<UserField> selectedFields, Map<Long, List<String>> rolesByUser) {
+        UserResponse response = new UserResponse();
+        if (selectedFields.contains(UserField.ID)) {
+            response.setId(user.getId());
+        }
+        if (selectedFields.contains(UserField.EMAIL)) {
+            response.setEmail(user.getEmail());
+        }
+        if (selectedFields.contains(UserField.ROLES)) {
+            response.setRoles(rolesByUser.getOrDefault(user.getId(), List.of()));
+        }
+        return response;
+    }
+}
@@ -0,0 +1,231 @@
+package com.url.springstarterkit.service;
+
+import com.url.springstarterkit.dto.UserStatsResponse;
+import com.url.springstarterkit.event.UserRolesChangedEvent;
+import com.url.springstarterkit.model.Role;
+import com.url.springstarterkit.sharding.ShardRouter;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Keeps user counters (total, per role, registrations per day) in memory and in {@code user_statistic_stripes}.
+ * Registrations and role changes adjust the counters inside their own transaction, each on a random
+ * stripe so concurrent writers do not queue on one row; a periodic reconciliation against the base
+ * tables corrects any drift. When users are sharded, each shard stores the counters for its own
+ * users and the in-memory values are their sum.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserStatisticsService {
+
+    private static final String TOTAL_KEY = "users.total";
+    private static final String ROLE_KEY_PREFIX = "users.role.";
+    private static final String REGISTRATIONS_KEY_PREFIX = "registrations.";
+    private static final String RECONCILE_LEASE = "user-statistics-reconcile";
+
+    // Creates the stripe on its first write, so a new key costs no extra statement
+    private static final String INCREMENT_STAT =
+            "INSERT INTO user_statistic_stripes (stat_key, stripe, stat_value) VALUES (?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE stat_value = stat_value + VALUES(stat_value)";
+    private static final String SELECT_STATS = "SELECT stat_key, SUM(stat_value) FROM user_statistic_stripes GROUP BY stat_key";
+    // Drift corrections go to one stripe; any stripe works since only the sum is read
+    private static final int CORRECTION_STRIPE = 0;
+    private static final String COUNT_USERS = "SELECT COUNT(*) FROM users";
+    private static final String COUNT_USERS_BY_ROLE =
+            "SELECT r.name, COUNT(*) FROM user_roles ur JOIN role r ON r.id = ur.role_id GROUP BY r.name";
+    private static final String COUNT_REGISTRATIONS =
+            "SELECT COUNT(*) FROM users WHERE created_at >= ? AND created_at < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MaintenanceLeaseService maintenanceLeaseService;
+    private final ShardRouter shardRouter;
+    private final PlatformTransactionManager transactionManager;
+
+    private final Map<String, Long> counters = new ConcurrentHashMap<>();
+    private TransactionTemplate snapshotTransaction;
+
+    @Value("${application.users.stats.stripes}")
+    private int stripes;
+
+    @Value("${application.users.stats.days}")
+    private int statsDays;
+
+    @Value("${application.users.stats.reconcile-lease-seconds}")
+    private long reconcileLeaseSeconds;
+
+    @PostConstruct
+    void load() {
+        // Stored counters and base tables are read from one snapshot, so they describe the same commits
+        snapshotTransaction = new TransactionTemplate(transactionManager);
+        snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        try {
+            reloadFromTable();
+        } catch (Exception e) {
+            log.error("Error loading user statistics: {}", e.getMessage(), e);
+        }
+        if (!counters.containsKey(TOTAL_KEY)) {
+            log.info("No user statistics stored yet, computing from base tables");
+            reconcileSafely();
+        }
+    }
+
+    public long getTotalUsers() {
+        return counters.getOrDefault(TOTAL_KEY, 0L);
+    }
+
+    public UserStatsResponse getStats() {
+        Map<String, Long> usersByRole = new LinkedHashMap<>();
+        for (Role.RoleName role : Role.RoleName.values()) {
+            usersByRole.put(role.name(), counters.getOrDefault(ROLE_KEY_PREFIX + role.name(), 0L));
+        }
+        Map<String, Long> registrationsByDay = new LinkedHashMap<>();
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        for (int i = statsDays - 1; i >= 0; i--) {
+            String day = today.minusDays(i).toString();
+            registrationsByDay.put(day, counters.getOrDefault(REGISTRATIONS_KEY_PREFIX + day, 0L));
+        }
+        return new UserStatsResponse(getTotalUsers(), usersByRole, registrationsByDay);
+    }
+
+    /**
+     * Must be called inside the registration transaction; memory is only updated once it commits.
+     */
+    public void recordRegistration(Collection<Role.RoleName> roles, Instant registeredAt) {
+        Map<String, Long> deltas = new TreeMap<>();
+        deltas.put(TOTAL_KEY, 1L);
+        roles.forEach(role -> deltas.put(ROLE_KEY_PREFIX + role.name(), 1L));
+        deltas.put(REGISTRATIONS_KEY_PREFIX + LocalDate.ofInstant(registeredAt, ZoneOffset.UTC), 1L);
+        apply(deltas);
+    }
+
+    // Part of the role change transaction: the counter write commits or rolls back with it
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onUserRolesChanged(UserRolesChangedEvent event) {
+        long delta = event.granted() ? event.userIds().size() : -event.userIds().size();
+        apply(new TreeMap<>(Map.of(ROLE_KEY_PREFIX + event.role().name(), delta)));
+    }
+
+    @Scheduled(fixedRateString = "${application.users.stats.reconcile-interval-ms}",
+            initialDelayString = "${application.users.stats.reconcile-interval-ms}")
+    public void reconcilePeriodically() {
+        // One instance recomputes from the base tables; the others pick up its results from the table
+        if (!maintenanceLeaseService.tryAcquire(RECONCILE_LEASE, Duration.ofSeconds(reconcileLeaseSeconds))) {
+            reloadFromTable();
+            return;
+        }
+        try {
+            reconcileSafely();
+        } finally {
+            maintenanceLeaseService.release(RECONCILE_LEASE);
+        }
+    }
+
+    private void reconcileSafely() {
+        try {
+            reconcile();
+        } catch (Exception e) {
+            log.error("Error reconciling user statistics: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Counts each shard's base tables and compares them with its stored counters read in the same
+     * snapshot. The difference is added rather than the count written, so increments committed
+     * while counting are kept.
+     */
+    private void reconcile() {
+        long start = System.currentTimeMillis();
+        for (int shard : shardRouter.getShards()) {
+            shardRouter.runOnShard(shard, () -> snapshotTransaction.executeWithoutResult(status -> {
+                Map<String, Long> stored = new HashMap<>();
+                jdbcTemplate.query(SELECT_STATS, rs -> {
+                    stored.put(rs.getString(1), rs.getLong(2));
+                });
+                countShard().forEach((key, actual) -> {
+                    long drift = actual - stored.getOrDefault(key, 0L);
+                    if (drift != 0) {
+                        log.warn("User statistic {} on shard {} drifted by {}, corrected", key, shard, drift);
+                        jdbcTemplate.update(INCREMENT_STAT, key, CORRECTION_STRIPE, drift);
+                    }
+                });
+            }));
+        }
+        reloadFromTable();
+        log.info("User statistics reconciled in {} ms", System.currentTimeMillis() - start);
+    }
+
+    private Map<String, Long> countShard() {
+        Map<String, Long> actual = new HashMap<>();
+        actual.put(TOTAL_KEY, jdbcTemplate.queryForObject(COUNT_USERS, Long.class));
+        for (Role.RoleName role : Role.RoleName.values()) {
+            actual.put(ROLE_KEY_PREFIX + role.name(), 0L);
+        }
+        jdbcTemplate.query(COUNT_USERS_BY_ROLE, rs -> {
+            actual.put(ROLE_KEY_PREFIX + rs.getString(1), rs.getLong(2));
+        });
+
+        // Only recent days can still change; older daily counts are kept as recorded
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        for (LocalDate day : new LocalDate[]{today.minusDays(1), today}) {
+            Instant from = day.atStartOfDay().toInstant(ZoneOffset.UTC);
+            Instant to = day.plusDays(1).atStartOfDay().toInstant(ZoneOffset.UTC);
+            actual.put(REGISTRATIONS_KEY_PREFIX + day,
+                    jdbcTemplate.queryForObject(COUNT_REGISTRATIONS, Long.class, Timestamp.from(from), Timestamp.from(to)));
+        }
+        return actual;
+    }
+
+    private void reloadFromTable() {
+        Map<String, Long> totals = new HashMap<>();
+        for (int shard : shardRouter.getShards()) {
+            shardRouter.runOnShard(shard, () -> jdbcTemplate.query(SELECT_STATS, rs -> {
+                totals.merge(rs.getString(1), rs.getLong(2), Long::sum);
+            }));
+        }
+        counters.putAll(totals);
+    }
+
+    // Keys are written in sorted order on one stripe, so two writers never lock rows in opposite order
+    private void apply(Map<String, Long> deltas) {
+        int stripe = ThreadLocalRandom.current().nextInt(stripes);
+        jdbcTemplate.batchUpdate(INCREMENT_STAT, deltas.entrySet().stream()
+                .map(entry -> new Object[]{entry.getKey(), stripe, entry.getValue()})
+                .toList());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    deltas.forEach((key, delta) -> counters.merge(key, delta, Long::sum));
+                }
+            });
+        } else {
+            deltas.forEach((key, delta) -> counters.merge(key, delta, Long::sum));
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.url.springstarterkit.sharding;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * One-off migration after shards have been added: walks the users of the previously existing
+ * shards and moves every user whose email now hashes to another shard, with its role assignments.
+ * Each batch is copied to the target before it is deleted from the source, so an interrupted run
+ * can simply be restarted; the source rows stay locked until they are deleted, and are only deleted
+ * once the target is verified to hold the same users. User ids are kept; id lookups fall back to the
+ * other shards for them.
+ * Runs in a process that serves no requests (the {@code reshard} profile), with the instances
+ * serving traffic stopped, and exits when done.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "application.sharding.reshard.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class ReshardRunner implements ApplicationRunner {
+
+    private static final String SELECT_USER_PAGE =
+            "SELECT id, email FROM users WHERE id > :afterId ORDER BY id LIMIT :limit";
+    private static final String SELECT_USERS_FOR_UPDATE =
+            "SELECT id, email, password, last_login_at, created_at, updated_at FROM users WHERE id IN (:ids) FOR UPDATE";
+    private static final String SELECT_USER_ROLES = "SELECT user_id, role_id FROM user_roles WHERE user_id IN (:ids)";
+    private static final String INSERT_USER =
+            "INSERT IGNORE INTO users (id, email, password, last_login_at, created_at, updated_at) " +
+            "VALUES (:id, :email, :password, :last_login_at, :created_at, :updated_at)";
+    private static final String SELECT_USER_EMAILS = "SELECT id, email FROM users WHERE id IN (:ids)";
+    private static final String INSERT_USER_ROLE = "INSERT IGNORE INTO user_roles (user_id, role_id) VALUES (:user_id, :role_id)";
+    private static final String DELETE_USER_ROLES = "DELETE FROM user_roles WHERE user_id IN (:ids)";
+    private static final String DELETE_USERS = "DELETE FROM users WHERE id IN (:ids)";
+
+    private final ApplicationContext applicationContext;
+    private final ShardRoutingDataSource dataSource;
+    private final ShardRouter shardRouter;
+
+    @Value("${application.sharding.reshard.from-shard-count}")
+    private int fromShardCount;
+
+    @Value("${application.sharding.reshard.batch-size}")
+    private int batchSize;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        // A web server here would accept writes for users that are about to be deleted from their shard
+        if (applicationContext instanceof WebServerApplicationContext) {
+            throw new IllegalStateException("Resharding must not serve requests: "
+                    + "run it with the reshard profile or spring.main.web-application-type=none");
+        }
+        // Consistent hashing only moves users onto added shards, whose id ranges are above all existing ids
+        if (fromShardCount < 1 || fromShardCount >= shardRouter.getShardCount()) {
+            throw new IllegalStateException("Resharding needs between 1 and " + (shardRouter.getShardCount() - 1)
+                    + " previous shards, got " + fromShardCount);
+        }
+        log.info("Resharding users from {} to {} shards", fromShardCount, shardRouter.getShardCount());
+        long start = System.currentTimeMillis();
+        long moved = 0;
+        for (int source = 0; source < fromShardCount; source++) {
+            moved += reshard(source);
+        }
+        log.info("Resharding completed, {} users moved in {} ms; user statistics are corrected by the next reconcile",
+                moved, System.currentTimeMillis() - start);
+        System.exit(SpringApplication.exit(applicationContext, () -> 0));
+    }
+
+    private long reshard(int source) {
+        NamedParameterJdbcTemplate jdbcTemplate = new NamedParameterJdbcTemplate(dataSource.getShard(source));
+        long moved = 0;
+        long afterId = -1;
+        List<Map<String, Object>> page;
+        do {
+            page = jdbcTemplate.queryForList(SELECT_USER_PAGE,
+                    new MapSqlParameterSource("afterId", afterId).addValue("limit", batchSize));
+            Map<Integer, List<Long>> moves = new TreeMap<>();
+            for (Map<String, Object> row : page) {
+                long id = ((Number) row.get("id")).longValue();
+                int target = shardRouter.shardForEmail((String) row.get("email"));
+                if (target != source) {
+                    moves.computeIfAbsent(target, shard -> new ArrayList<>()).add(id);
+                }
+                afterId = id;
+            }
+            for (Map.Entry<Integer, List<Long>> move : moves.entrySet()) {
+                moveUsers(source, move.getKey(), move.getValue());
+                moved += move.getValue().size();
+            }
+        } while (page.size() == batchSize);
+        log.info("Shard {}: {} users moved", source, moved);
+        return moved;
+    }
+
+    private void moveUsers(int source, int target, List<Long> ids) {
+        DataSource sourceDataSource = dataSource.getShard(source);
+        DataSource targetDataSource = dataSource.getShard(target);
+        NamedParameterJdbcTemplate sourceJdbc = new NamedParameterJdbcTemplate(sourceDataSource);
+        NamedParameterJdbcTemplate targetJdbc = new NamedParameterJdbcTemplate(targetDataSource);
+        MapSqlParameterSource idParams = new MapSqlParameterSource("ids", ids);
+
+        // Source rows stay locked from the copy until their delete, so nothing written to them in between is lost
+        new TransactionTemplate(new DataSourceTransactionManager(sourceDataSource)).executeWithoutResult(sourceStatus -> {
+            List<Map<String, Object>> users = sourceJdbc.queryForList(SELECT_USERS_FOR_UPDATE, idParams);
+            List<Map<String, Object>> userRoles = sourceJdbc.queryForList(SELECT_USER_ROLES, idParams);
+
+            new TransactionTemplate(new DataSourceTransactionManager(targetDataSource)).executeWithoutResult(status -> {
+                targetJdbc.batchUpdate(INSERT_USER, users.stream().map(MapSqlParameterSource::new)
+                        .toArray(MapSqlParameterSource[]::new));
+                if (!userRoles.isEmpty()) {
+                    targetJdbc.batchUpdate(INSERT_USER_ROLE, userRoles.stream().map(MapSqlParameterSource::new)
+                            .toArray(MapSqlParameterSource[]::new));
+                }
+                verifyCopied(targetJdbc, target, users, idParams);
+            });
+            sourceJdbc.update(DELETE_USER_ROLES, idParams);
+            sourceJdbc.update(DELETE_USERS, idParams);
+        });
+        log.debug("Moved {} users from shard {} to shard {}", ids.size(), source, target);
+    }
+
+    // The inserts skip rows that already exist so a restarted run is idempotent; that is only safe
+    // when the existing row is the same user, otherwise deleting the source would lose the account
+    private static void verifyCopied(NamedParameterJdbcTemplate targetJdbc, int target,
+                                     List<Map<String, Object>> users, MapSqlParameterSource idParams) {
+        Map<Long, String> copied = new HashMap<>();
+        targetJdbc.query(SELECT_USER_EMAILS, idParams, rs -> {
+            copied.put(rs.getLong("id"), rs.getString("email"));
+        });
+        for (Map<String, Object> user : users) {
+            long id = ((Number) user.get("id")).longValue();
+            if (!user.get("email").equals(copied.get(id))) {
+                throw new IllegalStateException(String.format(
+                        "User %d could not be copied to shard %d, which holds a different user with its id or email", id, target));
+            }
+        }
+    }
+}
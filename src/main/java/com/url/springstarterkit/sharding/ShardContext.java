@@ -0,0 +1,40 @@
+package com.url.springstarterkit.sharding;
+
+import java.util.function.Supplier;
+
+/**
+ * Per-thread shard that {@link ShardRoutingDataSource} hands connections out for. Unset means the
+ * primary shard, which also holds every table that is not sharded.
+ */
+public final class ShardContext {
+
+    public static final int PRIMARY_SHARD = 0;
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static int current() {
+        Integer shard = CURRENT.get();
+        return shard != null ? shard : PRIMARY_SHARD;
+    }
+
+    /**
+     * Runs {@code work} against {@code shard}. A transaction must be started inside {@code work},
+     * since the connection, and with it the shard, is bound when the transaction begins.
+     */
+    public static <T> T call(int shard, Supplier<T> work) {
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.url.springstarterkit.sharding;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Routes user data to shards. Emails are placed by {@link ConsistentHashRing}; user ids carry the
+ * shard they were created on in their top bits, because each shard's {@code users} id sequence
+ * starts at {@link #idOffset}. With sharding disabled there is a single shard and every call
+ * runs against the primary data source unchanged.
+ */
+@Slf4j
+@Component
+public class ShardRouter {
+
+    public static final int SHARD_ID_SHIFT = 48;
+
+    @Value("${application.sharding.enabled}")
+    private boolean enabled;
+
+    @Value("${application.sharding.shard-urls}")
+    private String[] shardUrls;
+
+    @Value("${application.sharding.virtual-nodes}")
+    private int virtualNodes;
+
+    private ConsistentHashRing ring;
+    private List<Integer> shards;
+
+    @PostConstruct
+    void init() {
+        int shardCount = enabled ? 1 + shardUrls.length : 1;
+        ring = new ConsistentHashRing(shardCount, virtualNodes);
+        shards = new ArrayList<>(shardCount);
+        for (int shard = 0; shard < shardCount; shard++) {
+            shards.add(shard);
+        }
+        shards = List.copyOf(shards);
+        log.info("User data routed across {} shard(s)", shardCount);
+    }
+
+    public static long idOffset(int shard) {
+        return (long) shard << SHARD_ID_SHIFT;
+    }
+
+    public boolean isSharded() {
+        return shards.size() > 1;
+    }
+
+    public int getShardCount() {
+        return shards.size();
+    }
+
+    public List<Integer> getShards() {
+        return shards;
+    }
+
+    public int shardForEmail(String email) {
+        return ring.shardFor(email);
+    }
+
+    /**
+     * The shard a user was created on. Resharding can move a user away from it, so a miss there
+     * has to be retried on the other shards.
+     */
+    public int shardOfId(long id) {
+        int shard = (int) (id >>> SHARD_ID_SHIFT);
+        return shard < shards.size() ? shard : ShardContext.PRIMARY_SHARD;
+    }
+
+    public <T> T onShard(int shard, Supplier<T> work) {
+        return ShardContext.call(shard, work);
+    }
+
+    public void runOnShard(int shard, Runnable work) {
+        ShardContext.call(shard, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    public <T> T onShardForEmail(String email, Supplier<T> work) {
+        return ShardContext.call(shardForEmail(email), work);
+    }
+
+    public <K> Map<Integer, List<K>> groupByShard(Collection<K> keys, ToIntFunction<K> shardOf) {
+        Map<Integer, List<K>> grouped = new TreeMap<>();
+        for (K key : keys) {
+            grouped.computeIfAbsent(shardOf.applyAsInt(key), shard -> new ArrayList<>()).add(key);
+        }
+        return grouped;
+    }
+
+    /**
+     * Looks rows up by user id and groups them by the shard they were found on. Each id is tried on
+     * the shard it encodes; resharding keeps ids, so ids missing there are tried on the other shards.
+     */
+    public <R> Map<Integer, List<R>> findByIds(Collection<Long> ids, Function<List<Long>, List<R>> finder,
+                                               ToLongFunction<R> idOf) {
+        Map<Integer, List<R>> found = new TreeMap<>();
+        Set<Long> missing = new LinkedHashSet<>(ids);
+        groupByShard(List.copyOf(missing), this::shardOfId)
+                .forEach((shard, shardIds) -> collect(shard, shardIds, finder, idOf, found, missing));
+        if (isSharded()) {
+            for (int shard : shards) {
+                if (missing.isEmpty()) {
+                    break;
+                }
+                List<Long> candidates = missing.stream().filter(id -> shardOfId(id) != shard).toList();
+                if (!candidates.isEmpty()) {
+                    collect(shard, candidates, finder, idOf, found, missing);
+                }
+            }
+        }
+        return found;
+    }
+
+    private <R> void collect(int shard, List<Long> ids, Function<List<Long>, List<R>> finder, ToLongFunction<R> idOf,
+                             Map<Integer, List<R>> found, Set<Long> missing) {
+        List<R> rows = onShard(shard, () -> finder.apply(ids));
+        for (R row : rows) {
+            missing.remove(idOf.applyAsLong(row));
+        }
+        if (!rows.isEmpty()) {
+            found.computeIfAbsent(shard, key -> new ArrayList<>()).addAll(rows);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.url.springstarterkit.sharding;
+
+import com.url.springstarterkit.model.Role;
+import com.url.springstarterkit.model.User;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.JpaProperties;
+import org.springframework.boot.orm.jpa.EntityManagerFactoryBuilder;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Prepares the secondary shards before the application serves traffic: applies the entity schema
+ * the same way {@code spring.jpa.hibernate.ddl-auto} does for the primary, copies the {@code role}
+ * rows with their ids so role references mean the same on every shard, and starts each shard's
+ * {@code users} id sequence at its {@link ShardRouter#idOffset}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "application.sharding.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class ShardSchemaInitializer {
+
+    private static final String SEED_ROLE =
+            "INSERT INTO role (name) SELECT ? FROM DUAL WHERE NOT EXISTS (SELECT 1 FROM role WHERE name = ?)";
+    private static final String SELECT_ROLES = "SELECT id, name FROM role";
+    private static final String COPY_ROLE =
+            "INSERT INTO role (id, name) SELECT ?, ? FROM DUAL WHERE NOT EXISTS (SELECT 1 FROM role WHERE id = ?)";
+    private static final String MAX_USER_ID = "SELECT COALESCE(MAX(id), 0) FROM users";
+
+    // Injected so the primary schema exists before the shards are prepared
+    private final EntityManagerFactory entityManagerFactory;
+    private final ShardRoutingDataSource dataSource;
+    private final EntityManagerFactoryBuilder entityManagerFactoryBuilder;
+    private final JpaProperties jpaProperties;
+    private final HibernateProperties hibernateProperties;
+
+    @Value("${application.sharding.seed-roles}")
+    private boolean seedRoles;
+
+    @PostConstruct
+    void initialize() {
+        JdbcTemplate primary = new JdbcTemplate(dataSource.getShard(ShardContext.PRIMARY_SHARD));
+        if (seedRoles) {
+            for (Role.RoleName role : Role.RoleName.values()) {
+                primary.update(SEED_ROLE, role.name(), role.name());
+            }
+        }
+        List<Map<String, Object>> roles = primary.queryForList(SELECT_ROLES);
+
+        for (int shard = 1; shard < dataSource.getShardCount(); shard++) {
+            long start = System.currentTimeMillis();
+            DataSource shardDataSource = dataSource.getShard(shard);
+            applySchema(shard, shardDataSource);
+
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(shardDataSource);
+            for (Map<String, Object> role : roles) {
+                jdbcTemplate.update(COPY_ROLE, role.get("id"), role.get("name"), role.get("id"));
+            }
+            alignUserIds(shard, jdbcTemplate);
+            log.info("Prepared shard {} in {} ms", shard, System.currentTimeMillis() - start);
+        }
+    }
+
+    private void applySchema(int shard, DataSource shardDataSource) {
+        Map<String, Object> properties = hibernateProperties.determineHibernateProperties(
+                jpaProperties.getProperties(), new HibernateSettings());
+        LocalContainerEntityManagerFactoryBean factory = entityManagerFactoryBuilder
+                .dataSource(shardDataSource)
+                .packages(User.class)
+                .persistenceUnit("shard-" + shard + "-schema")
+                .properties(properties)
+                .build();
+        factory.afterPropertiesSet();
+        factory.destroy();
+    }
+
+    private void alignUserIds(int shard, JdbcTemplate jdbcTemplate) {
+        long offset = ShardRouter.idOffset(shard);
+        Long maxId = jdbcTemplate.queryForObject(MAX_USER_ID, Long.class);
+        if (maxId != null && maxId >= offset) {
+            return;
+        }
+        boolean mysql = Boolean.TRUE.equals(jdbcTemplate.execute(
+                (ConnectionCallback<Boolean>) connection ->
+                        connection.getMetaData().getDatabaseProductName().contains("MySQL")));
+        jdbcTemplate.execute(mysql
+                ? "ALTER TABLE users AUTO_INCREMENT = " + (offset + 1)
+                : "ALTER TABLE users ALTER COLUMN id RESTART WITH " + (offset + 1));
+    }
+}
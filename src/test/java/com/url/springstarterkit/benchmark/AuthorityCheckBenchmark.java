@@ -0,0 +1,102 @@
+package com.url.springstarterkit.benchmark;
+
+import com.url.springstarterkit.model.Role;
+import com.url.springstarterkit.model.User;
+import com.url.springstarterkit.security.AuthorityMasks;
+import com.url.springstarterkit.security.MaskedAuthenticationToken;
+import org.aopalliance.intercept.MethodInvocation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.security.access.expression.ExpressionUtils;
+import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.util.SimpleMethodInvocation;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of the {@code hasAnyAuthority('ROLE_ADMIN', 'ROLE_USER')} check: the SpEL
+ * evaluation {@code @PreAuthorize} performed against the mask AND done by
+ * {@code AuthorityMaskInterceptor}, plus building the authenticated token in each case.
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.url.springstarterkit.benchmark.AuthorityCheckBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthorityCheckBenchmark {
+
+    private static final long REQUIRED_MASK = AuthorityMasks.of(Role.RoleName.ADMIN, Role.RoleName.USER);
+
+    private User user;
+    private MaskedAuthenticationToken authentication;
+    private DefaultMethodSecurityExpressionHandler expressionHandler;
+    private Expression expression;
+    private MethodInvocation invocation;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        user = new User();
+        user.setEmail("benchmark@example.com");
+        user.setRoles(Set.of(new Role(1L, Role.RoleName.USER)));
+        authentication = new MaskedAuthenticationToken(user, user.getAuthorities());
+
+        expressionHandler = new DefaultMethodSecurityExpressionHandler();
+        // Parsed once, as the method security infrastructure caches parsed expressions per method
+        expression = expressionHandler.getExpressionParser()
+                .parseExpression("hasAnyAuthority('ROLE_ADMIN', 'ROLE_USER')");
+        invocation = new SimpleMethodInvocation(this, AuthorityCheckBenchmark.class.getMethod("setUp"));
+    }
+
+    @Benchmark
+    public boolean spelExpression() {
+        EvaluationContext context = expressionHandler.createEvaluationContext(() -> authentication, invocation);
+        return ExpressionUtils.evaluateAsBoolean(expression, context);
+    }
+
+    @Benchmark
+    public boolean authorityMask() {
+        return (authentication.getAuthorityMask() & REQUIRED_MASK) != 0;
+    }
+
+    @Benchmark
+    public Authentication authenticateWithAuthorityScan() {
+        User principal = copyOf(user);
+        return new MaskedAuthenticationToken(principal.getEmail(), principal.getAuthorities());
+    }
+
+    @Benchmark
+    public Authentication authenticateWithPrincipalMask() {
+        User principal = copyOf(user);
+        return new MaskedAuthenticationToken(principal, principal.getAuthorities());
+    }
+
+    // A fresh principal per request, as the filter loads one for every authenticated call
+    private static User copyOf(User user) {
+        User copy = new User();
+        copy.setEmail(user.getEmail());
+        copy.setRoles(user.getRoles());
+        return copy;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(AuthorityCheckBenchmark.class.getSimpleName()).build()).run();
+    }
+}
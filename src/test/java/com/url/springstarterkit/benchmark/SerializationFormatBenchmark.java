@@ -0,0 +1,94 @@
+package com.url.springstarterkit.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.url.springstarterkit.dto.PaginationResponse;
+import com.url.springstarterkit.dto.UserResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode and decode cost of a large user listing page in each negotiated body format, with the
+ * mappers configured as {@code JacksonConfig} configures them. The encoded size of each format is
+ * printed once per trial. Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.url.springstarterkit.benchmark.SerializationFormatBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationFormatBenchmark {
+
+    private static final TypeReference<PaginationResponse<UserResponse>> PAGE_TYPE = new TypeReference<>() {
+    };
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    @Param({"1000"})
+    private int pageSize;
+
+    private ObjectMapper mapper;
+    private PaginationResponse<UserResponse> page;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        mapper = switch (format) {
+            case "json" -> configure(new ObjectMapper());
+            case "cbor" -> configure(new CBORMapper());
+            case "smile" -> configure(new SmileMapper());
+            default -> throw new IllegalArgumentException("Unknown format: " + format);
+        };
+        List<UserResponse> users = new ArrayList<>(pageSize);
+        for (long id = 1; id <= pageSize; id++) {
+            users.add(new UserResponse(id, "user-" + id + "@example.com", List.of("USER")));
+        }
+        page = new PaginationResponse<>(users, 0, pageSize, 5_000_000L, 5_000_000 / pageSize, false);
+        encoded = mapper.writeValueAsBytes(page);
+        System.out.printf("%n%s page of %d users: %d bytes%n", format, pageSize, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return mapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public PaginationResponse<UserResponse> decode() throws IOException {
+        return mapper.readValue(encoded, PAGE_TYPE);
+    }
+
+    private static <M extends ObjectMapper> M configure(M mapper) {
+        mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, true);
+        mapper.registerModule(new BlackbirdModule());
+        return mapper;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(SerializationFormatBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,100 @@
+package com.url.springstarterkit.budget;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PerformanceBudgetFilterTest {
+
+    private static final String BODY = "{\"success\":true}";
+
+    private final PerformanceBudgetFilter filter = new PerformanceBudgetFilter(10, 2048, 3, true);
+
+    @Test
+    void overBudgetRequestFailsBeforeTheResponseIsCommitted() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = (request, servletResponse) -> {
+            RequestBudgetContext.recordStatement("SELECT * FROM users WHERE id = ?");
+            RequestBudgetContext.recordStatement("SELECT * FROM role WHERE id = ?");
+            servletResponse.getWriter().write(BODY);
+            servletResponse.flushBuffer();
+        };
+
+        assertThatThrownBy(() -> filter.doFilter(budgetedRequest(), response, chain))
+                .isInstanceOf(PerformanceBudgetExceededException.class)
+                .hasMessageContaining("issued 2 SQL statements, budget is 1");
+        assertThat(response.isCommitted()).isFalse();
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void repeatedStatementsAreReportedAsPossibleNPlusOne() {
+        FilterChain chain = (request, servletResponse) -> {
+            for (int i = 0; i < 3; i++) {
+                RequestBudgetContext.recordStatement("SELECT * FROM role WHERE user_id = ?");
+            }
+        };
+
+        assertThatThrownBy(() -> filter.doFilter(unbudgetedRequest(), new MockHttpServletResponse(), chain))
+                .isInstanceOf(PerformanceBudgetExceededException.class)
+                .hasMessageContaining("possible N+1");
+    }
+
+    @Test
+    void withinBudgetRequestIsPassedThrough() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = (request, servletResponse) -> {
+            RequestBudgetContext.recordStatement("SELECT * FROM users WHERE id = ?");
+            servletResponse.getWriter().write(BODY);
+        };
+
+        filter.doFilter(budgetedRequest(), response, chain);
+
+        assertThat(response.getContentAsString()).isEqualTo(BODY);
+        assertThat(filter.getViolations()).isEmpty();
+    }
+
+    @Test
+    void jdbcTemplateStatementsAreCounted() {
+        DriverManagerDataSource h2 = new DriverManagerDataSource("jdbc:h2:mem:statement-counter;DB_CLOSE_DELAY=-1", "sa", "");
+        Object dataSource = new SqlStatementCounter().postProcessAfterInitialization(h2, "dataSource");
+        assertThat(dataSource).isInstanceOf(DriverManagerDataSource.class);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate((DataSource) dataSource);
+
+        RequestBudgetContext context = RequestBudgetContext.start();
+        try {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS counted (id BIGINT PRIMARY KEY)");
+            jdbcTemplate.update("INSERT INTO counted (id) VALUES (?)", 1L);
+            jdbcTemplate.queryForObject("SELECT COUNT(*) FROM counted", Long.class);
+        } finally {
+            RequestBudgetContext.end();
+        }
+
+        assertThat(context.getStatements()).isEqualTo(3);
+    }
+
+    private static MockHttpServletRequest budgetedRequest() throws NoSuchMethodException {
+        MockHttpServletRequest request = unbudgetedRequest();
+        request.setAttribute(QueryBudgetInterceptor.BUDGET_ATTRIBUTE,
+                PerformanceBudgetFilterTest.class.getDeclaredMethod("budgetedHandler").getAnnotation(QueryBudget.class));
+        return request;
+    }
+
+    private static MockHttpServletRequest unbudgetedRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/users/1");
+        request.setAttribute(QueryBudgetInterceptor.HANDLER_ATTRIBUTE, "UserController#getUserById");
+        return request;
+    }
+
+    @QueryBudget(statements = 1, allocatedKb = 2048)
+    private static void budgetedHandler() {
+    }
+}
@@ -0,0 +1,217 @@
+package com.url.springstarterkit.budget;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.url.springstarterkit.dto.AuthenticationDTO;
+import com.url.springstarterkit.dto.IntrospectionRequest;
+import com.url.springstarterkit.dto.LogoutRequest;
+import com.url.springstarterkit.dto.RegisterDTO;
+import com.url.springstarterkit.dto.RoleAssignmentRequest;
+import com.url.springstarterkit.dto.UserBatchRequest;
+import com.url.springstarterkit.model.Role;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs every endpoint under the {@code budget} profile and fails when a request exceeds its
+ * {@link QueryBudget} or repeats a statement. Each request is sent twice and only the second is
+ * checked, so one-off work such as query plan compilation and serializer lookup is not counted.
+ * Budgets are the second call's measurement plus a margin: statements allow none beyond what was
+ * measured, and allocation allows about 25% for JIT and library changes.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("budget")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryBudgetTest {
+
+    private static final String PASSWORD = "password123";
+    // Other tests on the budget profile share this context and database
+    private static final String INSERT_ROLE =
+            "INSERT INTO role (name) SELECT ? FROM DUAL WHERE NOT EXISTS (SELECT 1 FROM role WHERE name = ?)";
+    private static final String ADMIN_EMAIL = "budget-admin@example.com";
+    // Enough rows on a page for per-row role queries to show up as repeated statements
+    private static final int USERS = 5;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private FilterRegistrationBean<PerformanceBudgetFilter> performanceBudgetFilter;
+
+    private final AtomicInteger registrations = new AtomicInteger();
+    private final List<Long> userIds = new ArrayList<>();
+    private String adminToken;
+
+    @BeforeAll
+    void seed() throws Exception {
+        for (Role.RoleName role : Role.RoleName.values()) {
+            jdbcTemplate.update(INSERT_ROLE, role.name(), role.name());
+        }
+        register(ADMIN_EMAIL);
+        jdbcTemplate.update(
+                "INSERT INTO user_roles (user_id, role_id) SELECT u.id, r.id FROM users u, role r WHERE u.email = ? AND r.name = ?",
+                ADMIN_EMAIL, Role.RoleName.ADMIN.name());
+        for (int i = 0; i < USERS; i++) {
+            register(nextEmail());
+        }
+        userIds.addAll(jdbcTemplate.queryForList("SELECT id FROM users WHERE email LIKE 'budget-%' ORDER BY id", Long.class));
+        adminToken = login(ADMIN_EMAIL);
+    }
+
+    @Test
+    void register() throws Exception {
+        assertWithinBudget(() -> post("/api/v1/auth/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json(new RegisterDTO(nextEmail(), PASSWORD))));
+    }
+
+    @Test
+    void login() throws Exception {
+        assertWithinBudget(() -> post("/api/v1/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json(new AuthenticationDTO(ADMIN_EMAIL, PASSWORD))));
+    }
+
+    @Test
+    void logout() throws Exception {
+        assertWithinBudget(() -> post("/api/v1/auth/logout")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json(new LogoutRequest(register(nextEmail())))));
+    }
+
+    @Test
+    void introspect() throws Exception {
+        String token = login(ADMIN_EMAIL);
+        assertWithinBudget(() -> authenticated(post("/api/v1/auth/introspect"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json(new IntrospectionRequest(List.of(token)))));
+    }
+
+    @Test
+    void jwks() throws Exception {
+        assertWithinBudget(() -> get("/.well-known/jwks.json"));
+    }
+
+    @Test
+    void getUserById() throws Exception {
+        assertWithinBudget(() -> authenticated(get("/api/v1/users/{id}", userIds.get(1))));
+    }
+
+    @Test
+    void listUsers() throws Exception {
+        assertWithinBudget(() -> authenticated(get("/api/v1/users").param("size", String.valueOf(USERS))));
+    }
+
+    @Test
+    void getUsersByIds() throws Exception {
+        String ids = userIds.stream().map(String::valueOf).reduce((a, b) -> a + "," + b).orElseThrow();
+        assertWithinBudget(() -> authenticated(get("/api/v1/users").param("ids", ids)));
+    }
+
+    @Test
+    void getUsersByIdsBatch() throws Exception {
+        assertWithinBudget(() -> authenticated(post("/api/v1/users/batch"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json(new UserBatchRequest(userIds, null))));
+    }
+
+    @Test
+    void userStats() throws Exception {
+        assertWithinBudget(() -> authenticated(get("/api/v1/users/stats")));
+    }
+
+    @Test
+    void userChanges() throws Exception {
+        assertWithinBudget(() -> authenticated(get("/api/v1/users/changes")));
+    }
+
+    @Test
+    void grantAndRevokeRole() throws Exception {
+        List<Long> targets = userIds.subList(1, userIds.size());
+        Callable<MockHttpServletRequestBuilder> grant = () -> authenticated(post("/api/v1/users/roles/grant"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json(new RoleAssignmentRequest(Role.RoleName.SERVICE, targets)));
+        Callable<MockHttpServletRequestBuilder> revoke = () -> authenticated(post("/api/v1/users/roles/revoke"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json(new RoleAssignmentRequest(Role.RoleName.SERVICE, targets)));
+        // Warmed up as a pair, so the measured calls change every target rather than finding nothing to do
+        send(grant);
+        send(revoke);
+        assertMeasuredWithinBudget(grant);
+        assertMeasuredWithinBudget(revoke);
+    }
+
+    private void assertWithinBudget(Callable<MockHttpServletRequestBuilder> request) throws Exception {
+        send(request);
+        assertMeasuredWithinBudget(request);
+    }
+
+    private void assertMeasuredWithinBudget(Callable<MockHttpServletRequestBuilder> request) throws Exception {
+        MockHttpServletRequestBuilder measured = request.call();
+        performanceBudgetFilter.getFilter().getViolations().clear();
+        mockMvc.perform(measured).andExpect(status().is2xxSuccessful());
+        assertThat(performanceBudgetFilter.getFilter().getViolations()).isEmpty();
+    }
+
+    private void send(Callable<MockHttpServletRequestBuilder> request) throws Exception {
+        mockMvc.perform(request.call()).andExpect(status().is2xxSuccessful());
+    }
+
+    private MockHttpServletRequestBuilder authenticated(MockHttpServletRequestBuilder request) {
+        return request.header(HttpHeaders.AUTHORIZATION, "Bearer " + adminToken);
+    }
+
+    private String register(String email) throws Exception {
+        return token(post("/api/v1/auth/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json(new RegisterDTO(email, PASSWORD))));
+    }
+
+    private String login(String email) throws Exception {
+        return token(post("/api/v1/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json(new AuthenticationDTO(email, PASSWORD))));
+    }
+
+    private String token(MockHttpServletRequestBuilder request) throws Exception {
+        String body = mockMvc.perform(request.accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).get("token").asText();
+    }
+
+    private String nextEmail() {
+        return "budget-user-" + registrations.incrementAndGet() + "@example.com";
+    }
+
+    private String json(Object value) throws Exception {
+        return objectMapper.writeValueAsString(value);
+    }
+}
@@ -0,0 +1,161 @@
+package com.url.springstarterkit.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.url.springstarterkit.dto.ApiResponse;
+import com.url.springstarterkit.dto.UserResponse;
+import com.url.springstarterkit.exception.GlobalExceptionHandler;
+import com.url.springstarterkit.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.ByteArrayHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * The envelope converter must produce exactly what Jackson wrote for {@link ApiResponse} before it
+ * existed, and must stay out of the way of the binary formats. Each request is sent through the
+ * converters {@link JacksonConfig} configures and through plain Jackson, and the bodies compared.
+ */
+class ApiResponseHttpMessageConverterTest {
+
+    private final JacksonConfig jacksonConfig = new JacksonConfig();
+    private final ObjectMapper objectMapper = jacksonConfig.objectMapper();
+    private final MockMvc configured = mockMvc(configuredConverters());
+    private final MockMvc plainJackson = mockMvc(List.of(new MappingJackson2HttpMessageConverter(objectMapper)));
+
+    @ParameterizedTest
+    @ValueSource(strings = {"/user", "/no-data", "/no-message", "/dated", "/escaped", "/list", "/missing"})
+    void jsonMatchesPlainJackson(String path) throws Exception {
+        MvcResult expected = plainJackson.perform(get(path).accept(MediaType.APPLICATION_JSON)).andReturn();
+        MvcResult actual = configured.perform(get(path).accept(MediaType.APPLICATION_JSON)).andReturn();
+
+        assertThat(actual.getResponse().getStatus()).isEqualTo(expected.getResponse().getStatus());
+        assertThat(actual.getResponse().getContentType()).isEqualTo(expected.getResponse().getContentType());
+        assertThat(actual.getResponse().getContentAsString()).isEqualTo(expected.getResponse().getContentAsString());
+    }
+
+    @Test
+    void errorEnvelopeCarriesNullData() throws Exception {
+        MvcResult result = configured.perform(get("/missing").accept(MediaType.APPLICATION_JSON)).andReturn();
+
+        assertThat(result.getResponse().getStatus()).isEqualTo(404);
+        assertThat(result.getResponse().getContentAsString())
+                .isEqualTo("{\"success\":false,\"message\":\"User 42 not found\",\"data\":null}");
+    }
+
+    @Test
+    void requestsWithoutAcceptGetJson() throws Exception {
+        MvcResult result = configured.perform(get("/user")).andReturn();
+
+        assertThat(result.getResponse().getContentType()).isEqualTo(MediaType.APPLICATION_JSON_VALUE);
+    }
+
+    @Test
+    void cborReachesItsOwnConverter() throws Exception {
+        MvcResult result = configured.perform(get("/user").accept(MediaType.APPLICATION_CBOR)).andReturn();
+
+        assertThat(result.getResponse().getContentType()).isEqualTo(MediaType.APPLICATION_CBOR_VALUE);
+        assertThat(new CBORMapper().readTree(result.getResponse().getContentAsByteArray()))
+                .isEqualTo(objectMapper.readTree(json("/user")));
+    }
+
+    @Test
+    void smileReachesItsOwnConverter() throws Exception {
+        MediaType smile = new MediaType("application", "x-jackson-smile");
+        MvcResult result = configured.perform(get("/user").accept(smile)).andReturn();
+
+        assertThat(MediaType.parseMediaType(result.getResponse().getContentType()).isCompatibleWith(smile)).isTrue();
+        assertThat(new SmileMapper().readTree(result.getResponse().getContentAsByteArray()))
+                .isEqualTo(objectMapper.readTree(json("/user")));
+    }
+
+    private String json(String path) throws Exception {
+        return plainJackson.perform(get(path).accept(MediaType.APPLICATION_JSON)).andReturn()
+                .getResponse().getContentAsString();
+    }
+
+    // Spring's defaults for these types, then what JacksonConfig does to them
+    private List<HttpMessageConverter<?>> configuredConverters() {
+        List<HttpMessageConverter<?>> converters = new ArrayList<>(List.of(
+                new ByteArrayHttpMessageConverter(),
+                new StringHttpMessageConverter(),
+                new MappingJackson2HttpMessageConverter(objectMapper),
+                new MappingJackson2SmileHttpMessageConverter(),
+                new MappingJackson2CborHttpMessageConverter()));
+        jacksonConfig.extendMessageConverters(converters);
+        return converters;
+    }
+
+    private static MockMvc mockMvc(List<HttpMessageConverter<?>> converters) {
+        return MockMvcBuilders.standaloneSetup(new EnvelopeController())
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .setMessageConverters(converters.toArray(HttpMessageConverter[]::new))
+                .build();
+    }
+
+    @RestController
+    static class EnvelopeController {
+
+        @GetMapping("/user")
+        ApiResponse<UserResponse> user() {
+            // roles is null and left out by UserResponse's NON_NULL inclusion
+            return ApiResponse.success("User retrieved successfully", new UserResponse(1L, "user@example.com", null));
+        }
+
+        @GetMapping("/no-data")
+        ApiResponse<Void> noData() {
+            return ApiResponse.success("Role revoked", null);
+        }
+
+        @GetMapping("/no-message")
+        ApiResponse<String> noMessage() {
+            return new ApiResponse<>(true, null, "value");
+        }
+
+        @GetMapping("/dated")
+        ApiResponse<Map<String, Object>> dated() {
+            Map<String, Object> data = new LinkedHashMap<>();
+            data.put("createdAt", new Date(1_700_000_000_000L));
+            data.put("deletedAt", null);
+            return ApiResponse.success(data);
+        }
+
+        @GetMapping("/escaped")
+        ApiResponse<String> escaped() {
+            return ApiResponse.error("Invalid \"email\"\né <script>", "tab\there");
+        }
+
+        @GetMapping("/list")
+        ApiResponse<List<UserResponse>> list() {
+            return ApiResponse.success(List.of(
+                    new UserResponse(1L, "first@example.com", List.of("ROLE_USER")),
+                    new UserResponse(2L, null, List.of())));
+        }
+
+        @GetMapping("/missing")
+        ApiResponse<UserResponse> missing() {
+            throw new ResourceNotFoundException("User 42 not found");
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.url.springstarterkit.limiter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(10);
+
+    @Test
+    void steadyLatencyGrowsTheLimitUpToItsMaximum() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 10, 5, 50);
+
+        int previous = limiter.getLimit();
+        for (int round = 0; round < 100; round++) {
+            saturate(limiter, FAST);
+            assertThat(limiter.getLimit()).isGreaterThanOrEqualTo(previous).isLessThanOrEqualTo(50);
+            previous = limiter.getLimit();
+        }
+        assertThat(limiter.getLimit()).isEqualTo(50);
+    }
+
+    @Test
+    void risingLatencyShrinksTheLimitDownToItsMinimum() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 40, 5, 50);
+        saturate(limiter, FAST);
+        int baseline = limiter.getLimit();
+
+        for (int round = 0; round < 30; round++) {
+            saturate(limiter, SLOW);
+            assertThat(limiter.getLimit()).isGreaterThanOrEqualTo(5);
+        }
+        assertThat(limiter.getLimit()).isLessThan(baseline).isEqualTo(5);
+    }
+
+    @Test
+    void samplesFromALightlyLoadedLimiterLeaveTheLimitAlone() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 20, 5, 50);
+        limiter.tryAcquire();
+        limiter.release(FAST);
+
+        // One request in flight at a time is below half the limit, so even slow samples change nothing
+        for (int i = 0; i < 100; i++) {
+            assertThat(limiter.tryAcquire()).isTrue();
+            limiter.release(SLOW);
+        }
+        assertThat(limiter.getLimit()).isEqualTo(20);
+    }
+
+    @Test
+    void acquireFailsOnceTheLimitIsInFlight() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 2, 1, 2);
+
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isFalse();
+        limiter.release(FAST);
+        assertThat(limiter.tryAcquire()).isTrue();
+    }
+
+    // Fills the limit, then completes every request with the given latency
+    private static void saturate(AdaptiveConcurrencyLimiter limiter, long rttNanos) {
+        int acquired = 0;
+        while (limiter.tryAcquire()) {
+            acquired++;
+        }
+        for (int i = 0; i < acquired; i++) {
+            limiter.release(rttNanos);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.url.springstarterkit.limiter;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrencyLimitFilterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AdaptiveConcurrencyLimiter authLimiter = new AdaptiveConcurrencyLimiter("auth", 1, 1, 1);
+    private final AdaptiveConcurrencyLimiter userLimiter = new AdaptiveConcurrencyLimiter("users", 1, 1, 1);
+    private final ConcurrencyLimitFilter filter =
+            new ConcurrencyLimitFilter(authLimiter, userLimiter, objectMapper, meterRegistry, 3);
+
+    @Test
+    void requestOverTheLimitIsRejectedWithRetryAfter() throws Exception {
+        assertThat(userLimiter.tryAcquire()).isTrue();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/users"), response, chain);
+
+        assertThat(response.getStatus()).isEqualTo(503);
+        assertThat(response.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("3");
+        assertThat(response.getContentType()).isEqualTo(MediaType.APPLICATION_JSON_VALUE);
+        JsonNode body = objectMapper.readTree(response.getContentAsByteArray());
+        assertThat(body.get("success").asBoolean()).isFalse();
+        assertThat(body.get("message").asText()).isEqualTo("Service is busy. Please retry later.");
+        assertThat(chain.getRequest()).isNull();
+        assertThat(meterRegistry.counter("http.concurrency.rejected", "limiter", "users").count()).isEqualTo(1);
+    }
+
+    @Test
+    void requestWithinTheLimitPassesAndReleasesItsPermit() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/v1/auth/login"), new MockHttpServletResponse(), chain);
+
+        assertThat(chain.getRequest()).isNotNull();
+        assertThat(authLimiter.getInflight()).isZero();
+    }
+
+    @Test
+    void otherPathsAreNotLimited() throws Exception {
+        assertThat(authLimiter.tryAcquire()).isTrue();
+        assertThat(userLimiter.tryAcquire()).isTrue();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/.well-known/jwks.json"), new MockHttpServletResponse(), chain);
+
+        assertThat(chain.getRequest()).isNotNull();
+    }
+}
@@ -0,0 +1,49 @@
+package com.url.springstarterkit.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Collects per-endpoint latency samples from the load generator threads and summarises them.
+ */
+public class LatencyRecorder {
+
+    private long[] samples = new long[1 << 14];
+    private int count;
+    private int errors;
+
+    public synchronized void record(long latencyNanos, boolean success) {
+        if (!success) {
+            errors++;
+        }
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, samples.length * 2);
+        }
+        samples[count++] = latencyNanos;
+    }
+
+    public synchronized Summary summarize(long elapsedNanos) {
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        return new Summary(
+                count,
+                errors,
+                seconds > 0 ? count / seconds : 0,
+                percentileMillis(sorted, 0.50),
+                percentileMillis(sorted, 0.90),
+                percentileMillis(sorted, 0.99)
+        );
+    }
+
+    private static double percentileMillis(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1_000_000.0;
+    }
+
+    public record Summary(int requests, int errors, double throughput, double p50Millis, double p90Millis,
+                          double p99Millis) {
+    }
+}
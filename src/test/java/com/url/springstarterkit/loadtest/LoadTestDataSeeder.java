@@ -0,0 +1,100 @@
+package com.url.springstarterkit.loadtest;
+
+import com.url.springstarterkit.service.RegisteredEmailFilter;
+import com.url.springstarterkit.service.UserStatisticsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Seeds the embedded load-test database with roles, one admin and a configurable number of users.
+ * Every seeded user shares one password hash so seeding millions of rows does not pay BCrypt per row.
+ * Rows are written as registration writes them: timestamps set and {@code change_seq} left pending for
+ * {@link com.url.springstarterkit.service.UserChangeSequencer}. The email filter and the user statistics
+ * are updated here as well, so the application starts the run with the state its own paths produce.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class LoadTestDataSeeder implements ApplicationRunner {
+
+    public static final String ADMIN_EMAIL = "loadtest-admin@example.com";
+    public static final String USER_EMAIL_FORMAT = "loadtest-user-%d@example.com";
+
+    private static final int BATCH_SIZE = 5000;
+    private static final String INSERT_USER =
+            "INSERT INTO users (email, password, created_at, updated_at) VALUES (?, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final RegisteredEmailFilter registeredEmailFilter;
+    private final UserStatisticsService userStatisticsService;
+
+    @Value("${application.loadtest.users:10000}")
+    private int userCount;
+
+    @Value("${application.loadtest.password:password123}")
+    private String password;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        seedRoles();
+        Long userRoleId = roleId("USER");
+        Long adminRoleId = roleId("ADMIN");
+        String passwordHash = passwordEncoder.encode(password);
+
+        Integer existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Integer.class);
+        if (existing != null && existing > 0) {
+            log.info("Load test database already seeded with {} users", existing);
+            return;
+        }
+
+        log.info("Seeding load test database with {} users", userCount);
+        long start = System.currentTimeMillis();
+        insertUser(ADMIN_EMAIL, passwordHash, adminRoleId);
+
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < userCount; i++) {
+            String email = String.format(USER_EMAIL_FORMAT, i);
+            batch.add(new Object[]{email, passwordHash});
+            registeredEmailFilter.add(email);
+            if (batch.size() == BATCH_SIZE || i == userCount - 1) {
+                jdbcTemplate.batchUpdate(INSERT_USER, batch);
+                batch.clear();
+            }
+        }
+        jdbcTemplate.update(
+                "INSERT INTO user_roles (user_id, role_id) SELECT u.id, ? FROM users u WHERE u.email LIKE 'loadtest-user-%'",
+                userRoleId);
+        // The counters were loaded before seeding; this is the drift correction a running instance applies
+        userStatisticsService.reconcilePeriodically();
+        log.info("Seeded {} users in {} ms", userCount, System.currentTimeMillis() - start);
+    }
+
+    private void seedRoles() {
+        for (String name : List.of("USER", "ADMIN")) {
+            Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM role WHERE name = ?", Integer.class, name);
+            if (count == null || count == 0) {
+                jdbcTemplate.update("INSERT INTO role (name) VALUES (?)", name);
+            }
+        }
+    }
+
+    private Long roleId(String name) {
+        return jdbcTemplate.queryForObject("SELECT id FROM role WHERE name = ?", Long.class, name);
+    }
+
+    private void insertUser(String email, String passwordHash, Long roleId) {
+        jdbcTemplate.update(INSERT_USER, email, passwordHash);
+        registeredEmailFilter.add(email);
+        jdbcTemplate.update(
+                "INSERT INTO user_roles (user_id, role_id) SELECT u.id, ? FROM users u WHERE u.email = ?",
+                roleId, email);
+    }
+}
@@ -0,0 +1,329 @@
+package com.url.springstarterkit.loadtest;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.url.springstarterkit.service.RegisteredEmailFilter;
+import com.url.springstarterkit.service.UserChangeSequencer;
+import com.url.springstarterkit.service.UserStatisticsService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Closed-loop load generator run against the embedded application under the {@code loadtest} profile.
+ * Each worker issues one request at a time from the configured endpoint mix, latencies are summarised per
+ * endpoint, and the test fails when any request fails or throughput or p99 regress against the committed
+ * baseline. Runs with {@code mvn -Ploadtest verify}; the regular test phase skips it.
+ */
+@Slf4j
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("loadtest")
+@Import(LoadTestDataSeeder.class)
+class LoadTestIT {
+
+    private static final String REGISTER = "register";
+    private static final String LOGIN = "login";
+    private static final String GET_USER = "get-user";
+    private static final String LIST_USERS = "list-users";
+    private static final String LOGOUT = "logout";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserStatisticsService userStatisticsService;
+
+    @Autowired
+    private RegisteredEmailFilter registeredEmailFilter;
+
+    @Autowired
+    private UserChangeSequencer userChangeSequencer;
+
+    @LocalServerPort
+    private int port;
+
+    @Value("${application.loadtest.users:10000}")
+    private int userCount;
+
+    @Value("${application.loadtest.password:password123}")
+    private String password;
+
+    @Value("${application.loadtest.concurrency:16}")
+    private int concurrency;
+
+    @Value("${application.loadtest.warmup-seconds:10}")
+    private int warmupSeconds;
+
+    @Value("${application.loadtest.duration-seconds:60}")
+    private int durationSeconds;
+
+    @Value("${application.loadtest.mix:register:5,login:20,get-user:60,list-users:10,logout:5}")
+    private String mix;
+
+    @Value("${application.loadtest.baseline-file:src/test/resources/loadtest-baseline.json}")
+    private String baselineFile;
+
+    @Value("${application.loadtest.write-baseline:false}")
+    private boolean writeBaseline;
+
+    @Value("${application.loadtest.tolerance:0.15}")
+    private double tolerance;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    @Test
+    void throughputAndLatencyDoNotRegress() throws Exception {
+        Map<String, Integer> weights = parseMix(mix);
+        awaitSeededState();
+        long minUserId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM users", Long.class);
+        long maxUserId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM users", Long.class);
+        String adminToken = login(LoadTestDataSeeder.ADMIN_EMAIL);
+
+        Map<String, LatencyRecorder> recorders = new LinkedHashMap<>();
+        weights.keySet().forEach(endpoint -> recorders.put(endpoint, new LatencyRecorder()));
+
+        log.info("Starting load test: {} workers, {}s warmup, {}s measurement, mix {}",
+                concurrency, warmupSeconds, durationSeconds, weights);
+
+        long warmupEnd = System.nanoTime() + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long measurementEnd = warmupEnd + TimeUnit.SECONDS.toNanos(durationSeconds);
+        AtomicLong registrations = new AtomicLong();
+
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            workers.submit(() -> runWorker(weights, recorders, adminToken, minUserId, maxUserId,
+                    warmupEnd, measurementEnd, registrations));
+        }
+        workers.shutdown();
+        workers.awaitTermination(warmupSeconds + durationSeconds + 60L, TimeUnit.SECONDS);
+
+        Map<String, LatencyRecorder.Summary> results = new LinkedHashMap<>();
+        long measuredNanos = TimeUnit.SECONDS.toNanos(durationSeconds);
+        recorders.forEach((endpoint, recorder) -> results.put(endpoint, recorder.summarize(measuredNanos)));
+        results.forEach((endpoint, summary) -> log.info(
+                "{}: requests={} errors={} throughput={}/s p50={}ms p90={}ms p99={}ms",
+                endpoint, summary.requests(), summary.errors(), String.format("%.1f", summary.throughput()),
+                String.format("%.2f", summary.p50Millis()), String.format("%.2f", summary.p90Millis()),
+                String.format("%.2f", summary.p99Millis())));
+
+        assertThat(compareWithBaseline(results)).as("load test regressions").isEmpty();
+    }
+
+    // Measuring starts from the state production paths leave behind, not from one still warming up
+    private void awaitSeededState() throws InterruptedException {
+        userChangeSequencer.assignSequences();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (registeredEmailFilter.snapshotState() == null && System.nanoTime() < deadline) {
+            Thread.sleep(100);
+        }
+        assertThat(registeredEmailFilter.snapshotState()).as("email filter loaded").isNotNull();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users WHERE change_seq IS NULL", Long.class))
+                .as("users without a change sequence").isZero();
+        assertThat(userStatisticsService.getTotalUsers())
+                .as("user statistics total")
+                .isEqualTo(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Long.class));
+    }
+
+    private void runWorker(
+            Map<String, Integer> weights,
+            Map<String, LatencyRecorder> recorders,
+            String adminToken,
+            long minUserId,
+            long maxUserId,
+            long warmupEnd,
+            long measurementEnd,
+            AtomicLong registrations
+    ) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Deque<String> disposableTokens = new ArrayDeque<>();
+        String workerToken;
+        try {
+            workerToken = login(String.format(LoadTestDataSeeder.USER_EMAIL_FORMAT, random.nextInt(userCount)));
+        } catch (Exception e) {
+            log.error("Load test worker could not log in: {}", e.getMessage());
+            return;
+        }
+
+        long now;
+        while ((now = System.nanoTime()) < measurementEnd) {
+            String endpoint = pick(weights, random);
+            if (LOGOUT.equals(endpoint) && disposableTokens.isEmpty()) {
+                endpoint = LOGIN;
+            }
+            boolean measured = now >= warmupEnd;
+            long start = System.nanoTime();
+            boolean success;
+            try {
+                success = switch (endpoint) {
+                    case REGISTER -> keepToken(disposableTokens, post("/api/v1/auth/register", Map.of(
+                            "email", "loadtest-new-" + registrations.incrementAndGet() + "-" + UUID.randomUUID() + "@example.com",
+                            "password", password)));
+                    case LOGIN -> keepToken(disposableTokens, post("/api/v1/auth/login", Map.of(
+                            "email", String.format(LoadTestDataSeeder.USER_EMAIL_FORMAT, random.nextInt(userCount)),
+                            "password", password)));
+                    case GET_USER -> get("/api/v1/users/" + random.nextLong(minUserId, maxUserId + 1), workerToken)
+                            .statusCode() == 200;
+                    case LIST_USERS -> get("/api/v1/users?size=100&page=" + random.nextInt(Math.max(userCount / 100, 1)),
+                            adminToken).statusCode() == 200;
+                    case LOGOUT -> post("/api/v1/auth/logout", Map.of("token", disposableTokens.poll()))
+                            .statusCode() == 200;
+                    default -> throw new IllegalArgumentException("Unknown load test endpoint: " + endpoint);
+                };
+            } catch (IOException e) {
+                success = false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (measured) {
+                recorders.get(endpoint).record(System.nanoTime() - start, success);
+            }
+        }
+    }
+
+    private boolean keepToken(Deque<String> tokens, HttpResponse<String> response) throws IOException {
+        if (response.statusCode() != 200) {
+            return false;
+        }
+        // Bounded so long runs do not accumulate tokens that are never logged out
+        if (tokens.size() < 100) {
+            tokens.add(objectMapper.readTree(response.body()).path("token").asText());
+        }
+        return true;
+    }
+
+    private String login(String email) throws IOException, InterruptedException {
+        HttpResponse<String> response = post("/api/v1/auth/login", Map.of("email", email, "password", password));
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Login failed for " + email + " with status " + response.statusCode());
+        }
+        JsonNode body = objectMapper.readTree(response.body());
+        return body.path("token").asText();
+    }
+
+    private HttpResponse<String> post(String path, Object body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                .build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> get(String path, String token) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(uri(path))
+                .header("Authorization", "Bearer " + token)
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static String pick(Map<String, Integer> weights, ThreadLocalRandom random) {
+        int total = weights.values().stream().mapToInt(Integer::intValue).sum();
+        int roll = random.nextInt(total);
+        for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+            roll -= entry.getValue();
+            if (roll < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Load test mix is empty");
+    }
+
+    private static Map<String, Integer> parseMix(String mix) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid load test mix entry: " + entry);
+            }
+            weights.put(parts[0].trim(), Integer.parseInt(parts[1].trim()));
+        }
+        return weights;
+    }
+
+    private List<String> compareWithBaseline(Map<String, LatencyRecorder.Summary> results) throws IOException {
+        Path baselinePath = Path.of(baselineFile);
+        List<String> regressions = new ArrayList<>();
+        results.forEach((endpoint, summary) -> {
+            if (summary.errors() > 0) {
+                regressions.add(endpoint + " had " + summary.errors() + " failed requests");
+            }
+        });
+        if (writeBaseline) {
+            Map<String, Map<String, Double>> baseline = new LinkedHashMap<>();
+            results.forEach((endpoint, summary) -> baseline.put(endpoint, Map.of(
+                    "throughput", summary.throughput(),
+                    "p99Millis", summary.p99Millis())));
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(baselinePath.toFile(), baseline);
+            log.info("Load test baseline written to {}", baselinePath.toAbsolutePath());
+            return regressions;
+        }
+        if (!Files.exists(baselinePath)) {
+            regressions.add("No load test baseline at " + baselinePath.toAbsolutePath()
+                    + "; record one with application.loadtest.write-baseline=true");
+            return regressions;
+        }
+
+        Map<String, Map<String, Double>> baseline = objectMapper.readValue(baselinePath.toFile(),
+                new TypeReference<>() {});
+        results.forEach((endpoint, summary) -> {
+            Map<String, Double> expected = baseline.get(endpoint);
+            if (expected == null) {
+                regressions.add(endpoint + " has no baseline entry");
+                return;
+            }
+            if (summary.throughput() < expected.get("throughput") * (1 - tolerance)) {
+                regressions.add(String.format("%s throughput %.1f/s is below baseline %.1f/s",
+                        endpoint, summary.throughput(), expected.get("throughput")));
+            }
+            if (summary.p99Millis() > expected.get("p99Millis") * (1 + tolerance)) {
+                regressions.add(String.format("%s p99 %.2fms exceeds baseline %.2fms",
+                        endpoint, summary.p99Millis(), expected.get("p99Millis")));
+            }
+        });
+
+        regressions.forEach(regression -> log.error("Load test regression: {}", regression));
+        return regressions;
+    }
+}
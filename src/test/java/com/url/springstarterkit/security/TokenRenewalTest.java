@@ -0,0 +1,129 @@
+package com.url.springstarterkit.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.url.springstarterkit.dto.LogoutRequest;
+import com.url.springstarterkit.dto.RegisterDTO;
+import com.url.springstarterkit.model.Role;
+import com.url.springstarterkit.service.AuthenticationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Sliding sessions end to end: renewed tokens are only handed out on successful, non-auth requests,
+ * and logging out with any token of a session revokes the others.
+ */
+// Configured like QueryBudgetTest so both share one context; a second one would recreate the shared schema
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("budget")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class TokenRenewalTest {
+
+    private static final String EMAIL = "renewal-user@example.com";
+    private static final String INSERT_ROLE =
+            "INSERT INTO role (name) SELECT ? FROM DUAL WHERE NOT EXISTS (SELECT 1 FROM role WHERE name = ?)";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private UserDetailsService userDetailsService;
+
+    @Autowired
+    private AuthenticationService authenticationService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long userId;
+
+    @BeforeAll
+    void seed() {
+        for (Role.RoleName role : Role.RoleName.values()) {
+            jdbcTemplate.update(INSERT_ROLE, role.name(), role.name());
+        }
+        authenticationService.register(new RegisterDTO(EMAIL, "password123"));
+        userId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE email = ?", Long.class, EMAIL);
+    }
+
+    @Test
+    void refusedRequestsAreNotRenewed() throws Exception {
+        // Statistics are ADMIN-only; the filter authenticates the USER token, then authorization refuses it
+        mockMvc.perform(get("/api/v1/users/stats").header(HttpHeaders.AUTHORIZATION, "Bearer " + renewableToken()))
+                .andExpect(status().isForbidden())
+                .andExpect(header().doesNotExist(JwtAuthenticationFilter.RENEWED_TOKEN_HEADER));
+    }
+
+    @Test
+    void logoutIsNotRenewedAndRevokesTheWholeSession() throws Exception {
+        String token = renewableToken();
+        MvcResult renewal = mockMvc.perform(get("/api/v1/users/{id}", userId)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(JwtAuthenticationFilter.RENEWED_TOKEN_HEADER))
+                .andReturn();
+        String renewed = renewal.getResponse().getHeader(JwtAuthenticationFilter.RENEWED_TOKEN_HEADER);
+        assertThat(jwtService.extractSessionId(jwtService.extractAllClaims(renewed)))
+                .isEqualTo(jwtService.extractSessionId(jwtService.extractAllClaims(token)));
+
+        mockMvc.perform(post("/api/v1/auth/logout")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new LogoutRequest(token))))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(JwtAuthenticationFilter.RENEWED_TOKEN_HEADER));
+
+        mockMvc.perform(get("/api/v1/users/{id}", userId).header(HttpHeaders.AUTHORIZATION, "Bearer " + renewed))
+                .andExpect(status().is4xxClientError());
+    }
+
+    @Test
+    void renewalWindowMustBeShorterThanTheTokenLifetime() {
+        JwtService shortLived = Mockito.mock(JwtService.class);
+        Mockito.when(shortLived.getShortestExpiration()).thenReturn(Duration.ofMinutes(54).toMillis());
+        TokenRenewalService renewalService = new TokenRenewalService(shortLived, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(renewalService, "enabled", true);
+        ReflectionTestUtils.setField(renewalService, "renewalWindow", Duration.ofHours(1).toMillis());
+
+        assertThatThrownBy(renewalService::init).isInstanceOf(IllegalStateException.class);
+    }
+
+    // Issued 50 minutes ago, so it expires within the 10 minute renewal window of the budget profile
+    private String renewableToken() {
+        ReflectionTestUtils.setField(jwtService, "currentTime", System.currentTimeMillis() - Duration.ofMinutes(50).toMillis());
+        try {
+            return jwtService.generateToken(userDetailsService.loadUserByUsername(EMAIL));
+        } finally {
+            ReflectionTestUtils.setField(jwtService, "currentTime", null);
+        }
+    }
+}
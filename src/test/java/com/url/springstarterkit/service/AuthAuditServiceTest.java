@@ -0,0 +1,67 @@
+package com.url.springstarterkit.service;
+
+import com.url.springstarterkit.sharding.ShardRouter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AuthAuditServiceTest {
+
+    private final JdbcTemplate jdbcTemplate = Mockito.mock(JdbcTemplate.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AuthAuditService auditService =
+            new AuthAuditService(jdbcTemplate, meterRegistry, Mockito.mock(ShardRouter.class));
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(auditService, "queueCapacity", 10);
+        ReflectionTestUtils.setField(auditService, "batchSize", 10);
+        // Long enough that only the flush on stop writes
+        ReflectionTestUtils.setField(auditService, "flushIntervalMs", 60_000L);
+        ReflectionTestUtils.setField(auditService, "overflowPolicy", AuthAuditService.OverflowPolicy.DROP_NEWEST);
+        auditService.start();
+    }
+
+    @Test
+    void batchIsRetriedOnceAfterAFailedInsert() throws Exception {
+        when(jdbcTemplate.batchUpdate(anyString(), any(List.class), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DataAccessResourceFailureException("connection reset"))
+                .thenReturn(new int[][]{{1, 1}});
+        auditService.recordLogout("first@example.com");
+        auditService.recordLogout("second@example.com");
+
+        auditService.stop();
+
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), any(List.class), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        assertThat(meterRegistry.counter("auth.audit.events.written").count()).isEqualTo(2);
+        assertThat(meterRegistry.counter("auth.audit.events.dropped", "reason", "write_failed").count()).isZero();
+    }
+
+    @Test
+    void batchFailingTwiceIsCountedAsDropped() throws Exception {
+        when(jdbcTemplate.batchUpdate(anyString(), any(List.class), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DataAccessResourceFailureException("connection reset"));
+        auditService.recordLogout("first@example.com");
+        auditService.recordLogout("second@example.com");
+
+        auditService.stop();
+
+        assertThat(meterRegistry.counter("auth.audit.events.dropped", "reason", "write_failed").count()).isEqualTo(2);
+        assertThat(meterRegistry.counter("auth.audit.events.written").count()).isZero();
+    }
+}
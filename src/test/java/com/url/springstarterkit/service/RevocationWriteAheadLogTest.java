@@ -0,0 +1,64 @@
+package com.url.springstarterkit.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RevocationWriteAheadLogTest {
+
+    private static final Instant EXPIRY = Instant.ofEpochMilli(1_900_000_000_000L);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void concurrentAppendsAreAllDurable() throws Exception {
+        Path path = directory.resolve("revocations.wal");
+        int writers = 8;
+        int appendsPerWriter = 50;
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        try (RevocationWriteAheadLog log = new RevocationWriteAheadLog(path)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int writer = 0; writer < writers; writer++) {
+                int id = writer;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < appendsPerWriter; i++) {
+                        log.sync(log.write(new RevocationWriteAheadLog.Entry("token-" + id + "-" + i, EXPIRY)));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        try (RevocationWriteAheadLog reopened = new RevocationWriteAheadLog(path)) {
+            assertThat(reopened.readAll()).hasSize(writers * appendsPerWriter)
+                    .allMatch(entry -> entry.expiry().equals(EXPIRY));
+        }
+    }
+
+    @Test
+    void rewriteKeepsOnlyTheGivenEntries() throws Exception {
+        Path path = directory.resolve("revocations.wal");
+        RevocationWriteAheadLog.Entry kept = new RevocationWriteAheadLog.Entry("kept", EXPIRY);
+        try (RevocationWriteAheadLog log = new RevocationWriteAheadLog(path)) {
+            log.sync(log.write(new RevocationWriteAheadLog.Entry("flushed", EXPIRY)));
+            log.sync(log.write(kept));
+            log.rewrite(List.of(kept));
+            assertThat(log.readAll()).containsExactly(kept);
+        }
+    }
+}
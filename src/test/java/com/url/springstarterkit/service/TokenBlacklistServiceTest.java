@@ -0,0 +1,58 @@
+package com.url.springstarterkit.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the expired revocation cleanup against the embedded database, so its statements are
+ * checked on something other than MySQL.
+ */
+// Configured like QueryBudgetTest so both share one context; a second one would recreate the shared schema
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("budget")
+class TokenBlacklistServiceTest {
+
+    private static final String INSERT_REVOCATION =
+            "INSERT INTO blacklisted_tokens (token, expiry_date, created_at) VALUES (?, ?, CURRENT_TIMESTAMP)";
+    private static final String COUNT_REVOCATIONS = "SELECT COUNT(*) FROM blacklisted_tokens WHERE token LIKE 'cleanup-%'";
+
+    @Autowired
+    private TokenBlacklistService tokenBlacklistService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void cleanupPurgesExpiredRevocationsInChunks() {
+        Instant now = Instant.now();
+        for (int i = 0; i < 5; i++) {
+            jdbcTemplate.update(INSERT_REVOCATION, "cleanup-expired-" + i, Timestamp.from(now.minus(Duration.ofMinutes(i + 1))));
+        }
+        jdbcTemplate.update(INSERT_REVOCATION, "cleanup-active", Timestamp.from(now.plus(Duration.ofHours(1))));
+
+        // Smaller than the expired rows, so the cleanup has to take several chunks
+        Object chunkSize = ReflectionTestUtils.getField(tokenBlacklistService, "cleanupChunkSize");
+        ReflectionTestUtils.setField(tokenBlacklistService, "cleanupChunkSize", 2);
+        try {
+            tokenBlacklistService.cleanupExpiredTokens();
+        } finally {
+            ReflectionTestUtils.setField(tokenBlacklistService, "cleanupChunkSize", chunkSize);
+        }
+
+        assertThat(jdbcTemplate.queryForObject(COUNT_REVOCATIONS, Long.class)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT token FROM blacklisted_tokens WHERE token LIKE 'cleanup-%'", String.class)).isEqualTo("cleanup-active");
+    }
+}
@@ -0,0 +1,83 @@
+package com.url.springstarterkit.service;
+
+import com.url.springstarterkit.dto.RegisterDTO;
+import com.url.springstarterkit.model.Role;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Role changes against the embedded database: repeated grants and revokes must change nothing, so
+ * the per-role counters only move for users whose roles actually changed.
+ */
+// Configured like QueryBudgetTest so both share one context; a second one would recreate the shared schema
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("budget")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class UserRoleServiceTest {
+
+    private static final String INSERT_ROLE =
+            "INSERT INTO role (name) SELECT ? FROM DUAL WHERE NOT EXISTS (SELECT 1 FROM role WHERE name = ?)";
+    private static final String COUNT_HOLDERS =
+            "SELECT COUNT(*) FROM user_roles ur JOIN role r ON r.id = ur.role_id WHERE r.name = ?";
+
+    @Autowired
+    private UserRoleService userRoleService;
+
+    @Autowired
+    private UserStatisticsService userStatisticsService;
+
+    @Autowired
+    private AuthenticationService authenticationService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private List<Long> userIds;
+
+    @BeforeAll
+    void seed() {
+        for (Role.RoleName role : Role.RoleName.values()) {
+            jdbcTemplate.update(INSERT_ROLE, role.name(), role.name());
+        }
+        for (int i = 0; i < 3; i++) {
+            authenticationService.register(new RegisterDTO("role-user-" + i + "@example.com", "password123"));
+        }
+        userIds = jdbcTemplate.queryForList(
+                "SELECT id FROM users WHERE email LIKE 'role-user-%' ORDER BY id", Long.class);
+    }
+
+    @Test
+    void repeatedGrantsAndRevokesOnlyCountChangedUsers() {
+        long before = serviceCount();
+
+        assertThat(userRoleService.grantRole(Role.RoleName.SERVICE, userIds.subList(0, 2)).getChanged()).isEqualTo(2);
+        assertThat(serviceCount()).isEqualTo(before + 2);
+
+        // The first two already hold the role; only the third changes
+        assertThat(userRoleService.grantRole(Role.RoleName.SERVICE, userIds).getChanged()).isEqualTo(1);
+        assertThat(userRoleService.grantRole(Role.RoleName.SERVICE, userIds).getChanged()).isZero();
+        assertThat(serviceCount()).isEqualTo(before + 3);
+
+        assertThat(userRoleService.revokeRole(Role.RoleName.SERVICE, userIds).getChanged()).isEqualTo(3);
+        assertThat(userRoleService.revokeRole(Role.RoleName.SERVICE, userIds).getChanged()).isZero();
+        assertThat(serviceCount()).isEqualTo(before);
+    }
+
+    // The counter and the table must agree, or reconciliation would later report drift
+    private long serviceCount() {
+        long counted = userStatisticsService.getStats().getUsersByRole().get(Role.RoleName.SERVICE.name());
+        assertThat(counted).isEqualTo(jdbcTemplate.queryForObject(COUNT_HOLDERS, Long.class, Role.RoleName.SERVICE.name()));
+        return counted;
+    }
+}